@@ -0,0 +1,40 @@
+package com.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A stored upstream response; kept past its freshness lifetime so it can be revalidated by ETag.
+ */
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body,
+                             Instant storedAt, Instant expiresAt) {
+
+    public boolean isFresh(Instant now) {
+        return now.isBefore(expiresAt);
+    }
+
+    public String eTag() {
+        return headers.getETag();
+    }
+
+    public long ageSeconds(Instant now) {
+        return Math.max(0, Duration.between(storedAt, now).toSeconds());
+    }
+
+    /**
+     * The same response confirmed by upstream with a {@code 304}, fresh for another {@code ttl}.
+     */
+    public CachedResponse revalidated(Instant now, Duration ttl) {
+        return new CachedResponse(status, headers, body, now, now.plus(ttl));
+    }
+
+    /**
+     * Approximate heap footprint used to bound the cache by memory.
+     */
+    public int weight() {
+        return body.length + 64 * headers.size();
+    }
+}
@@ -0,0 +1,307 @@
+package com.gateway.cache;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * {@code EdgeCache} route filter: answers GETs from {@link EdgeResponseCache} while they are fresh and
+ * collapses concurrent identical misses into one upstream call whose response all of them receive.
+ * <p>
+ * A miss is fetched unconditionally, so the full response can be stored, and the client's
+ * {@code If-None-Match} is then answered here. A stale entry with an ETag is revalidated upstream
+ * and, on {@code 304}, served again without transferring the body. A chunked response is collected
+ * up to the entry size limit before it is stored; once it outgrows the limit, what was collected and
+ * the rest are streamed through unchanged, as are responses marked no-store/private/no-cache. How long
+ * an entry stays fresh is upstream's call: its {@code s-maxage} or {@code max-age}, and
+ * {@code gateway.edge-cache.default-ttl}, zero unless configured, when it sets neither.
+ * <p>
+ * A successful write through the route evicts what it may have changed below its first path segment:
+ * listings, lookups and searches always, single items named by its {@code id} parameter, and all single
+ * items when the ids are in the body, as with {@code POST /resources/delete}.
+ */
+@Component
+public class EdgeCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<EdgeCacheGatewayFilterFactory.Config> {
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Logger log = LoggerFactory.getLogger(EdgeCacheGatewayFilterFactory.class);
+
+    private final EdgeResponseCache cache;
+
+    public EdgeCacheGatewayFilterFactory(EdgeResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // ahead of the filter that writes the upstream body, so that it writes into CapturingResponse
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (isCacheable(request)) {
+                return serve(exchange, chain);
+            }
+            if (isWrite(request.getMethod())) {
+                // also after an error or cancellation: part of a streamed bulk write may have been committed
+                return chain.filter(exchange).doFinally(signal -> evictWritten(exchange));
+            }
+            return chain.filter(exchange);
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String key = EdgeResponseCache.key(exchange.getRequest());
+        CachedResponse cached = cache.get(key);
+        if (cached != null && cached.isFresh(Instant.now())) {
+            return write(exchange, cached, "HIT");
+        }
+
+        Sinks.One<Optional<CachedResponse>> flight = Sinks.one();
+        Sinks.One<Optional<CachedResponse>> leader = cache.join(key, flight);
+        if (leader != null) {
+            return leader.asMono().flatMap(response -> response.isPresent()
+                ? write(exchange, response.get(), "COALESCED")
+                : chain.filter(exchange));
+        }
+
+        CachedResponse stale = cached != null && cached.eTag() != null ? cached : null;
+        CapturingResponse upstreamResponse = new CapturingResponse(exchange.getResponse(), key, stale, flight,
+            cache.generation(key));
+        ServerWebExchange upstream = exchange.mutate()
+            .request(unconditional(exchange.getRequest(), stale))
+            .response(upstreamResponse)
+            .build();
+
+        return chain.filter(upstream)
+            .then(Mono.defer(() -> upstreamResponse.captured == null
+                ? Mono.empty()
+                : write(exchange, upstreamResponse.captured, stale != null ? "REVALIDATED" : "MISS")))
+            // waiters must never hang on a leader that failed or was cancelled
+            .doFinally(signal -> cache.land(key, flight, upstreamResponse.captured));
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        Instant now = Instant.now();
+
+        headers.clear();
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, String.valueOf(cached.ageSeconds(now)));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (matchesAny(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), cached.eTag())) {
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(cached.status());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private boolean isCacheable(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (!HttpMethod.GET.equals(request.getMethod())
+            || headers.containsKey(HttpHeaders.RANGE)
+            || headers.containsKey(HttpHeaders.AUTHORIZATION)
+            || headers.containsKey(HttpHeaders.UPGRADE)) {
+            return false;
+        }
+        List<String> directives = EdgeResponseCache.directives(headers);
+        return !directives.contains("no-cache") && !directives.contains("no-store");
+    }
+
+    private void evictWritten(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status == null || !status.is2xxSuccessful()) {
+            return;
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getURI().getRawPath();
+        String collection = EdgeResponseCache.collection(path);
+        Predicate<String> evictedItem = path.endsWith("/delete")
+            ? id -> true
+            : writtenIds(request)::contains;
+
+        cache.evict(collection, keyPath -> {
+            if (keyPath.equals(collection)) {
+                return true;
+            }
+            if (!keyPath.startsWith(collection + "/")) {
+                return false;
+            }
+            String item = keyPath.substring(collection.length() + 1);
+            return !isId(item) || evictedItem.test(withoutLeadingZeros(item));
+        });
+        log.debug("Evicted {} entries written by {} {}", collection, request.getMethod(), path);
+    }
+
+    private static Set<String> writtenIds(ServerHttpRequest request) {
+        return request.getQueryParams().getOrDefault("id", List.of()).stream()
+            .flatMap(ids -> Arrays.stream(ids.split(",")))
+            .map(String::trim)
+            .filter(EdgeCacheGatewayFilterFactory::isId)
+            .map(EdgeCacheGatewayFilterFactory::withoutLeadingZeros)
+            .collect(Collectors.toSet());
+    }
+
+    private static boolean isId(String segment) {
+        return !segment.isEmpty() && segment.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+
+    private static String withoutLeadingZeros(String id) {
+        int start = 0;
+        while (start < id.length() - 1 && id.charAt(start) == '0') {
+            start++;
+        }
+        return id.substring(start);
+    }
+
+    private static boolean isWrite(HttpMethod method) {
+        return !HttpMethod.GET.equals(method)
+            && !HttpMethod.HEAD.equals(method)
+            && !HttpMethod.OPTIONS.equals(method)
+            && !HttpMethod.TRACE.equals(method);
+    }
+
+    private ServerHttpRequest unconditional(ServerHttpRequest request, CachedResponse stale) {
+        return request.mutate()
+            .headers(headers -> {
+                headers.remove(HttpHeaders.IF_NONE_MATCH);
+                headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                if (stale != null) {
+                    headers.setIfNoneMatch(stale.eTag());
+                }
+            })
+            .build();
+    }
+
+    private boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || eTag == null) {
+            return false;
+        }
+        String opaqueTag = stripWeak(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    public static class Config {
+    }
+
+    /**
+     * Upstream side of a leading request: a storable body is collected and stored instead of written,
+     * anything else goes straight through to the client. Waiters are released as soon as that is known,
+     * which for a body of unknown length is when it ends or outgrows the entry size limit.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+        private final String key;
+        private final CachedResponse stale;
+        private final Sinks.One<Optional<CachedResponse>> flight;
+        private final long generation;
+        private volatile CachedResponse captured;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, CachedResponse stale,
+                          Sinks.One<Optional<CachedResponse>> flight, long generation) {
+            super(delegate);
+            this.key = key;
+            this.stale = stale;
+            this.flight = flight;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            HttpHeaders headers = getHeaders();
+
+            if (stale != null && status != null && status.value() == HttpStatus.NOT_MODIFIED.value()) {
+                return Flux.from(body)
+                    .doOnNext(DataBufferUtils::release)
+                    .then(Mono.fromRunnable(() -> {
+                        captured = stale.revalidated(Instant.now(), cache.ttl(headers));
+                        cache.put(key, captured, generation);
+                        cache.land(key, flight, captured);
+                    }));
+            }
+
+            if (!cache.isStorable(status, headers)) {
+                cache.land(key, flight, null);
+                return super.writeWith(body);
+            }
+
+            long[] collected = {0};
+            return Flux.<DataBuffer>from(body)
+                // the whole body as one part, or a first part that crossed the limit followed by the rest
+                .bufferUntil(buffer -> cache.exceedsEntrySize(collected[0] += buffer.readableByteCount()))
+                .switchOnFirst((first, parts) -> {
+                    if (cache.exceedsEntrySize(collected[0])) {
+                        cache.land(key, flight, null);
+                        return super.writeWith(parts.concatMapIterable(part -> part));
+                    }
+                    return parts.map(CapturingResponse::toBytes)
+                        .defaultIfEmpty(new byte[0])
+                        .doOnNext(bytes -> {
+                            captured = cache.store(key, status, headers, bytes, generation);
+                            log.debug("Stored {} ({} bytes) in the edge cache", key, bytes.length);
+                            cache.land(key, flight, captured);
+                        })
+                        .then();
+                })
+                .then();
+        }
+
+        private static byte[] toBytes(List<DataBuffer> part) {
+            byte[] bytes = new byte[part.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+            int offset = 0;
+            for (DataBuffer buffer : part) {
+                int length = buffer.readableByteCount();
+                buffer.read(bytes, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+            return bytes;
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(part -> part));
+        }
+    }
+}
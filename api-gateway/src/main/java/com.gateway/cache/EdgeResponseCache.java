@@ -0,0 +1,262 @@
+package com.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Shared, memory-bounded store of GET responses plus the registry of upstream loads in flight, so
+ * concurrent identical requests wait for one load instead of each going upstream. Published as the
+ * {@code cache.*} metrics of {@code gateway-edge-cache} and {@code gateway.edge-cache.coalesced}.
+ * <p>
+ * Entries are grouped by collection, the first segment of their path, so that a write only touches its
+ * own collection. Every {@link #evict eviction} starts a new generation of the collection: a response to
+ * it read under an earlier one is still served to the requests that waited for it but not stored, as it
+ * may predate the write that evicted. Loads of other collections are unaffected.
+ */
+@Component
+public class EdgeResponseCache {
+    public static final String CACHE_NAME = "gateway-edge-cache";
+
+    // response headers a shared cache may vary on, because they are part of the key
+    private static final Set<String> KEYED_VARY_HEADERS = Set.of("accept", "accept-encoding");
+
+    private final Cache<String, CachedResponse> cache;
+    private final ConcurrentMap<String, Sinks.One<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final long maxEntrySize;
+    private final Duration defaultTtl;
+    private final Counter coalesced;
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    // the keys stored per collection; changed only inside the cache's atomic operations on the key
+    private final ConcurrentMap<String, Set<String>> keysByCollection = new ConcurrentHashMap<>();
+
+    public EdgeResponseCache(@Value("${gateway.edge-cache.max-size:256MB}") DataSize maxSize,
+                             @Value("${gateway.edge-cache.max-entry-size:10MB}") DataSize maxEntrySize,
+                             @Value("${gateway.edge-cache.default-ttl:PT0S}") Duration defaultTtl,
+                             @Value("${gateway.edge-cache.max-stale:PT10M}") Duration maxStale,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxSize.toBytes())
+            .weigher((String key, CachedResponse response) -> key.length() + response.weight())
+            .expireAfterWrite(maxStale)
+            .evictionListener((String key, CachedResponse response, RemovalCause cause) -> keys(key).remove(key))
+            .recordStats()
+            .build();
+        this.maxEntrySize = maxEntrySize.toBytes();
+        this.defaultTtl = defaultTtl;
+        this.coalesced = Counter.builder("gateway.edge-cache.coalesced")
+            .description("Requests answered by another request's upstream call")
+            .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public static String key(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return request.getURI().getRawPath()
+            + '?' + (request.getURI().getRawQuery() == null ? "" : request.getURI().getRawQuery())
+            + '|' + String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT))
+            + '|' + String.join(",", headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    /**
+     * The collection of a request path: its first segment, e.g. {@code /songs} for {@code /songs/1}.
+     */
+    public static String collection(String path) {
+        int segmentEnd = path.indexOf('/', 1);
+        return segmentEnd < 0 ? path : path.substring(0, segmentEnd);
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Stores a response read under {@code loadGeneration}, unless its collection was evicted since.
+     */
+    public void put(String key, CachedResponse response, long loadGeneration) {
+        AtomicLong generation = generationOf(collection(pathOf(key)));
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        cache.asMap().compute(key, (k, previous) -> {
+            keys(k).add(k);
+            return response;
+        });
+        // an eviction that ran between the check and the put may have missed the entry
+        if (generation.get() != loadGeneration) {
+            remove(key);
+        }
+    }
+
+    /**
+     * The current generation of the key's collection, to be handed back to {@link #put} with its response.
+     */
+    public long generation(String key) {
+        return generationOf(collection(pathOf(key))).get();
+    }
+
+    /**
+     * Drops every entry of {@code collection} whose request path matches, and keeps loads of the
+     * collection already in progress from storing. Entries of other collections are not looked at.
+     */
+    public void evict(String collection, Predicate<String> path) {
+        generationOf(collection).incrementAndGet();
+        Set<String> keys = keysByCollection.get(collection);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            if (path.test(pathOf(key))) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Registers {@code flight} as the upstream load of the key. Returns null if the caller now leads
+     * the load, or the flight already in progress to wait on.
+     */
+    public Sinks.One<Optional<CachedResponse>> join(String key, Sinks.One<Optional<CachedResponse>> flight) {
+        Sinks.One<Optional<CachedResponse>> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+        }
+        return existing;
+    }
+
+    /**
+     * Hands the outcome of a load to its waiters; empty tells them to go upstream themselves.
+     */
+    public void land(String key, Sinks.One<Optional<CachedResponse>> flight, CachedResponse response) {
+        inFlight.remove(key, flight);
+        flight.tryEmitValue(Optional.ofNullable(response));
+    }
+
+    /**
+     * Whether a shared cache may store the response: a {@code 200} that Cache-Control allows to be stored
+     * and shared, and that varies on nothing outside the key. A body of unknown length qualifies unless it
+     * is an open-ended stream; it still has to fit {@link #exceedsEntrySize the entry size} once read.
+     */
+    public boolean isStorable(HttpStatusCode status, HttpHeaders headers) {
+        if (status == null || status.value() != HttpStatus.OK.value()) {
+            return false;
+        }
+        long contentLength = headers.getContentLength();
+        if (exceedsEntrySize(contentLength) || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        if (contentLength < 0 && isStream(headers.getContentType())) {
+            return false;
+        }
+
+        List<String> directives = directives(headers);
+        if (directives.contains("no-store") || directives.contains("private") || directives.contains("no-cache")) {
+            return false;
+        }
+        return headers.getVary().stream()
+            .allMatch(header -> KEYED_VARY_HEADERS.contains(header.toLowerCase(Locale.ROOT)))
+            && ttl(headers).isPositive();
+    }
+
+    /**
+     * Freshness lifetime from {@code s-maxage} or {@code max-age}, the default when upstream sets neither;
+     * with the default of zero only responses that ask to be cached are.
+     */
+    public Duration ttl(HttpHeaders headers) {
+        Duration maxAge = null;
+        for (String directive : directives(headers)) {
+            if (directive.startsWith("s-maxage=")) {
+                return parseSeconds(directive.substring("s-maxage=".length()));
+            }
+            if (directive.startsWith("max-age=")) {
+                maxAge = parseSeconds(directive.substring("max-age=".length()));
+            }
+        }
+        return maxAge != null ? maxAge : defaultTtl;
+    }
+
+    public boolean exceedsEntrySize(long bytes) {
+        return bytes > maxEntrySize;
+    }
+
+    public CachedResponse store(String key, HttpStatusCode status, HttpHeaders headers, byte[] body,
+                                long loadGeneration) {
+        HttpHeaders stored = new HttpHeaders();
+        stored.putAll(headers);
+        stored.remove(HttpHeaders.CONNECTION);
+        stored.remove(HttpHeaders.TRANSFER_ENCODING);
+        stored.remove(EdgeCacheGatewayFilterFactory.CACHE_STATUS_HEADER);
+        // a chunked upstream response is served from here with its length known
+        stored.setContentLength(body.length);
+
+        Instant now = Instant.now();
+        CachedResponse response = new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(stored), body,
+            now, now.plus(ttl(headers)));
+        put(key, response, loadGeneration);
+        return response;
+    }
+
+    private void remove(String key) {
+        cache.asMap().compute(key, (k, previous) -> {
+            keys(k).remove(k);
+            return null;
+        });
+    }
+
+    private Set<String> keys(String key) {
+        return keysByCollection.computeIfAbsent(collection(pathOf(key)), collection -> ConcurrentHashMap.newKeySet());
+    }
+
+    private AtomicLong generationOf(String collection) {
+        return generations.computeIfAbsent(collection, c -> new AtomicLong());
+    }
+
+    private static String pathOf(String key) {
+        return key.substring(0, key.indexOf('?'));
+    }
+
+    static List<String> directives(HttpHeaders headers) {
+        return headers.getOrEmpty(HttpHeaders.CACHE_CONTROL).stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(directive -> directive.trim().toLowerCase(Locale.ROOT))
+            .toList();
+    }
+
+    private static boolean isStream(MediaType contentType) {
+        return contentType != null
+            && (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType));
+    }
+
+    private static Duration parseSeconds(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Identifies clients by the address of the connection to the gateway. Forwarded headers are ignored
+ * because the gateway is the edge and a client could send any value in them.
+ */
+@Primary
+@Component
+public class ClientAddressKeyResolver implements KeyResolver {
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return Mono.empty();
+        }
+        return Mono.just(remoteAddress.getAddress().getHostAddress());
+    }
+}
@@ -0,0 +1,87 @@
+package com.gateway.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code ConcurrencyLimit=<max>} route filter: caps the requests a route has in flight to its backend.
+ * Requests over the cap are answered {@code 429} with {@code Retry-After} right away and count in
+ * {@code gateway.requests.limited}; a request stays in flight until its response has been written.
+ */
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+
+    private final ConcurrentMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ConcurrencyLimitGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxConcurrent", "retryAfter");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            String routeId = routeId(exchange);
+            // kept per route id so the count survives a route refresh
+            AtomicInteger counter = inFlight.computeIfAbsent(routeId, id -> new AtomicInteger());
+
+            if (counter.incrementAndGet() > config.getMaxConcurrent()) {
+                counter.decrementAndGet();
+                meterRegistry.counter("gateway.requests.limited", "route", routeId, "reason", "concurrency").increment();
+                exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                exchange.getResponse().getHeaders()
+                    .set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, config.getRetryAfter().toSeconds())));
+                return exchange.getResponse().setComplete();
+            }
+            return chain.filter(exchange).doFinally(signal -> counter.decrementAndGet());
+        };
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "unknown";
+    }
+
+    public static class Config {
+        private int maxConcurrent = 100;
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public Config setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+            return this;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public Config setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token bucket per route and client for the {@code RequestRateLimiter} filter, configured per
+ * route under {@code local-rate-limiter.*}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the
+ * generic cell rate algorithm), updated with compare-and-set, so admission takes no lock. Buckets of
+ * idle clients are dropped; an idle bucket has refilled anyway. Denied requests get {@code Retry-After}
+ * and count in {@code gateway.requests.limited}.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cache<String, AtomicLong> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Config defaultConfig = new Config();
+
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                            @Value("${gateway.rate-limit.max-clients:100000}") long maxClients,
+                            @Value("${gateway.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxClients)
+            .expireAfterAccess(idleTimeout)
+            .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        long cost = interval * config.getRequestedTokens();
+        long capacity = interval * config.getBurstCapacity();
+        AtomicLong bucket = buckets.get(routeId + '|' + id, key -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = System.nanoTime();
+            long fullAt = bucket.get();
+            long nextFullAt = Math.max(fullAt, now) + cost;
+            long allowedAt = nextFullAt - capacity;
+
+            if (allowedAt > now) {
+                meterRegistry.counter("gateway.requests.limited", "route", routeId, "reason", "rate").increment();
+                long retryAfterSeconds = Math.max(1, (allowedAt - now + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+                return Mono.just(new Response(false, headers(config, 0, retryAfterSeconds)));
+            }
+            if (bucket.compareAndSet(fullAt, nextFullAt)) {
+                long remaining = (capacity - (nextFullAt - now)) / interval;
+                return Mono.just(new Response(true, headers(config, remaining, 0)));
+            }
+        }
+    }
+
+    private Map<String, String> headers(Config config, long remaining, long retryAfterSeconds) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        if (retryAfterSeconds > 0) {
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        return headers;
+    }
+
+    @Validated
+    public static class Config {
+        /** Tokens added per second, i.e. the sustained request rate. */
+        @Min(1)
+        private int replenishRate = 10;
+
+        /** Tokens a bucket holds, i.e. the largest burst admitted at once. */
+        @Min(1)
+        private int burstCapacity = 20;
+
+        /** Tokens one request takes. */
+        @Min(1)
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@code EdgeCache} filter in front of {@link StubUpstream}, a filter chain that answers in place
+ * of the routed service the way the gateway's write filter would: status and headers first, then the body
+ * through {@code writeWith}, which for a {@code 304} is empty. A load can be held at a gate so that other
+ * requests arrive while it is in flight.
+ */
+class EdgeCacheGatewayFilterFactoryTest {
+    private static final int MAX_ENTRY_SIZE = 1024;
+    private static final int WAITERS = 8;
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String ETAG = "\"v1\"";
+
+    private EdgeResponseCache cache;
+    private GatewayFilter filter;
+    private StubUpstream upstream;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EdgeResponseCache(DataSize.ofMegabytes(1), DataSize.ofBytes(MAX_ENTRY_SIZE), Duration.ZERO,
+            Duration.ofMinutes(10), new SimpleMeterRegistry());
+        filter = new EdgeCacheGatewayFilterFactory(cache).apply(new EdgeCacheGatewayFilterFactory.Config());
+        upstream = new StubUpstream();
+    }
+
+    @Test
+    void concurrentIdenticalMissesMakeOneUpstreamCall() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        upstream.respond(exchange -> gate.asMono().then(ok(exchange, "song 1")));
+
+        List<MockServerWebExchange> exchanges = IntStream.rangeClosed(0, WAITERS)
+            .mapToObj(i -> get("/songs/1"))
+            .toList();
+        List<CompletableFuture<Void>> done = exchanges.stream().map(this::send).toList();
+        assertThat(done).noneMatch(CompletableFuture::isDone);
+        gate.tryEmitEmpty();
+
+        assertThat(done).allSatisfy(future -> assertThat(future).succeedsWithin(TIMEOUT));
+        assertThat(upstream.calls()).isEqualTo(1);
+        assertThat(exchanges).allSatisfy(exchange -> assertThat(body(exchange)).isEqualTo("song 1"));
+        assertThat(cacheStatus(exchanges.getFirst())).isEqualTo("MISS");
+        assertThat(exchanges.subList(1, exchanges.size()))
+            .allSatisfy(exchange -> assertThat(cacheStatus(exchange)).isEqualTo("COALESCED"));
+    }
+
+    @Test
+    void failedLeaderReleasesWaitersToGoUpstreamThemselves() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        AtomicBoolean leading = new AtomicBoolean(true);
+        upstream.respond(exchange -> leading.getAndSet(false)
+            ? gate.asMono().then(Mono.error(new IllegalStateException("Connection reset")))
+            : ok(exchange, "song 1"));
+
+        CompletableFuture<Void> leader = send(get("/songs/1"));
+        List<MockServerWebExchange> waiters = IntStream.range(0, WAITERS).mapToObj(i -> get("/songs/1")).toList();
+        List<CompletableFuture<Void>> done = waiters.stream().map(this::send).toList();
+        gate.tryEmitEmpty();
+
+        assertThat(leader).failsWithin(TIMEOUT).withThrowableThat().withMessageContaining("Connection reset");
+        assertThat(done).allSatisfy(future -> assertThat(future).succeedsWithin(TIMEOUT));
+        assertThat(waiters).allSatisfy(exchange -> assertThat(body(exchange)).isEqualTo("song 1"));
+        assertThat(upstream.calls()).isEqualTo(1 + WAITERS);
+    }
+
+    @Test
+    void revalidatesStaleEntryWithNotModified() {
+        MockServerWebExchange first = get("/songs/1");
+        String key = EdgeResponseCache.key(first.getRequest());
+        Instant now = Instant.now();
+        cache.put(key, new CachedResponse(HttpStatus.OK, storedHeaders(), bytes("song 1"),
+            now.minusSeconds(120), now.minusSeconds(60)), cache.generation(key));
+        upstream.respond(EdgeCacheGatewayFilterFactoryTest::notModified);
+
+        assertThat(send(first)).succeedsWithin(TIMEOUT);
+
+        assertThat(upstream.ifNoneMatch()).containsExactly(ETAG);
+        assertThat(first.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(first)).isEqualTo("song 1");
+        assertThat(cacheStatus(first)).isEqualTo("REVALIDATED");
+
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/songs/1")
+            .header(HttpHeaders.IF_NONE_MATCH, ETAG));
+        assertThat(send(conditional)).succeedsWithin(TIMEOUT);
+        assertThat(conditional.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(cacheStatus(conditional)).isEqualTo("HIT");
+        assertThat(upstream.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void writeEvictsTheEntriesOfItsCollectionOnly() {
+        assertThat(cacheStatus(sendAndAwait(get("/songs/1")))).isEqualTo("MISS");
+        assertThat(cacheStatus(sendAndAwait(get("/songs/1")))).isEqualTo("HIT");
+        assertThat(cacheStatus(sendAndAwait(get("/resources/1")))).isEqualTo("MISS");
+
+        sendAndAwait(exchange(MockServerHttpRequest.method(HttpMethod.DELETE, "/songs?id=1")));
+
+        assertThat(cacheStatus(sendAndAwait(get("/songs/1")))).isEqualTo("MISS");
+        assertThat(cacheStatus(sendAndAwait(get("/resources/1")))).isEqualTo("HIT");
+        assertThat(upstream.calls()).isEqualTo(4);
+    }
+
+    @Test
+    void writeKeepsLoadOfItsCollectionInFlightFromStoring() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        upstream.respond(exchange -> HttpMethod.GET.equals(exchange.getRequest().getMethod())
+            ? gate.asMono().then(ok(exchange, "song 1"))
+            : created(exchange));
+
+        MockServerWebExchange loading = get("/songs/1");
+        CompletableFuture<Void> load = send(loading);
+        sendAndAwait(exchange(MockServerHttpRequest.post("/songs")));
+        gate.tryEmitEmpty();
+
+        assertThat(load).succeedsWithin(TIMEOUT);
+        assertThat(body(loading)).isEqualTo("song 1");
+        assertThat(cache.get(EdgeResponseCache.key(loading.getRequest()))).isNull();
+    }
+
+    @Test
+    void writeToAnotherCollectionLetsLoadInFlightStore() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        upstream.respond(exchange -> HttpMethod.GET.equals(exchange.getRequest().getMethod())
+            ? gate.asMono().then(ok(exchange, "song 1"))
+            : created(exchange));
+
+        MockServerWebExchange loading = get("/songs/1");
+        CompletableFuture<Void> load = send(loading);
+        sendAndAwait(exchange(MockServerHttpRequest.post("/resources")));
+        gate.tryEmitEmpty();
+
+        assertThat(load).succeedsWithin(TIMEOUT);
+        assertThat(cacheStatus(sendAndAwait(get("/songs/1")))).isEqualTo("HIT");
+        assertThat(upstream.calls()).isEqualTo(2);
+    }
+
+    @Test
+    void passesThroughChunkedBodyOverTheEntrySize() {
+        List<String> chunks = List.of("a".repeat(600), "b".repeat(600), "c".repeat(600));
+        upstream.respond(exchange -> chunked(exchange, chunks));
+
+        MockServerWebExchange first = sendAndAwait(get("/songs"));
+        MockServerWebExchange second = sendAndAwait(get("/songs"));
+
+        assertThat(body(first)).isEqualTo(String.join("", chunks));
+        assertThat(cacheStatus(first)).isNull();
+        assertThat(body(second)).isEqualTo(String.join("", chunks));
+        assertThat(cache.get(EdgeResponseCache.key(first.getRequest()))).isNull();
+        assertThat(upstream.calls()).isEqualTo(2);
+    }
+
+    @Test
+    void storesChunkedBodyWithinTheEntrySize() {
+        List<String> chunks = List.of("a".repeat(300), "b".repeat(300));
+        upstream.respond(exchange -> chunked(exchange, chunks));
+
+        MockServerWebExchange first = sendAndAwait(get("/songs"));
+        MockServerWebExchange second = sendAndAwait(get("/songs"));
+
+        assertThat(cacheStatus(first)).isEqualTo("MISS");
+        assertThat(cacheStatus(second)).isEqualTo("HIT");
+        assertThat(body(second)).isEqualTo(String.join("", chunks));
+        assertThat(second.getResponse().getHeaders().getContentLength()).isEqualTo(600);
+        assertThat(upstream.calls()).isEqualTo(1);
+    }
+
+    private CompletableFuture<Void> send(ServerWebExchange exchange) {
+        return filter.filter(exchange, upstream).toFuture();
+    }
+
+    private MockServerWebExchange sendAndAwait(MockServerWebExchange exchange) {
+        assertThat(send(exchange)).succeedsWithin(TIMEOUT);
+        return exchange;
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return exchange(MockServerHttpRequest.get(path));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(TIMEOUT);
+    }
+
+    private static String cacheStatus(MockServerWebExchange exchange) {
+        return exchange.getResponse().getHeaders().getFirst(EdgeCacheGatewayFilterFactory.CACHE_STATUS_HEADER);
+    }
+
+    private static HttpHeaders storedHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setCacheControl("max-age=60");
+        headers.setETag(ETAG);
+        return headers;
+    }
+
+    private static Mono<Void> ok(ServerWebExchange exchange, String body) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(storedHeaders());
+        response.getHeaders().setContentLength(bytes(body).length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(bytes(body))));
+    }
+
+    private static Mono<Void> notModified(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().setCacheControl("max-age=60");
+        response.getHeaders().setETag(ETAG);
+        return response.writeWith(Flux.empty());
+    }
+
+    private static Mono<Void> chunked(ServerWebExchange exchange, List<String> chunks) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setCacheControl("max-age=60");
+        return response.writeWith(Flux.fromIterable(chunks).map(chunk -> response.bufferFactory().wrap(bytes(chunk))));
+    }
+
+    private static Mono<Void> created(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.CREATED);
+        return exchange.getResponse().writeWith(Flux.empty());
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The rest of the route: counts the calls that reach it and answers each with {@code handler}, by
+     * default a cacheable {@code 200} echoing the path for reads and a {@code 201} for writes.
+     */
+    private static class StubUpstream implements GatewayFilterChain {
+        private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Function<ServerWebExchange, Mono<Void>> handler = exchange ->
+            HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                ? ok(exchange, exchange.getRequest().getURI().getPath())
+                : created(exchange);
+
+        void respond(Function<ServerWebExchange, Mono<Void>> handler) {
+            this.handler = handler;
+        }
+
+        int calls() {
+            return calls.get();
+        }
+
+        List<String> ifNoneMatch() {
+            return ifNoneMatch;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            calls.incrementAndGet();
+            ifNoneMatch.addAll(exchange.getRequest().getHeaders().getIfNoneMatch());
+            return Mono.defer(() -> handler.apply(exchange));
+        }
+    }
+}
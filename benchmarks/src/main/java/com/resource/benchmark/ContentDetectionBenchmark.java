@@ -0,0 +1,50 @@
+package com.resource.benchmark;
+
+import org.apache.tika.Tika;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tika content-type sniffing of an MP3, from the leading bytes and from a stream with a file name hint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentDetectionBenchmark {
+    @Param({"synthetic-30s"})
+    public String fixture;
+
+    private final Tika tika = new Tika();
+    private byte[] mp3;
+
+    @Setup
+    public void setUp() {
+        mp3 = Mp3Fixtures.load(fixture).get(0);
+    }
+
+    @Benchmark
+    public String detectBytes() {
+        return tika.detect(mp3);
+    }
+
+    @Benchmark
+    public String detectStream() throws IOException {
+        return tika.detect(new ByteArrayInputStream(mp3), "upload.mp3");
+    }
+}
@@ -0,0 +1,130 @@
+package com.resource.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * MP3 inputs for the benchmarks: {@code synthetic-<seconds>s} builds a tagged constant-bitrate file,
+ * anything else is a path to an MP3 or a directory of them, so a corpus of real files can be measured
+ * with {@code -p fixture=/path/to/mp3s}.
+ */
+public final class Mp3Fixtures {
+    // MPEG-1 layer III, 128 kbps, 44.1 kHz, no CRC: 417-byte frames of 1152 samples, 418 when padded
+    private static final byte[] FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x00};
+    private static final int PADDING_BIT = 0x02;
+    private static final double AVERAGE_FRAME_SIZE = 144.0 * 128_000 / 44_100;
+    private static final Pattern SYNTHETIC = Pattern.compile("synthetic-(\\d+)s");
+
+    private Mp3Fixtures() {
+        // prevent instantiation
+    }
+
+    public static List<byte[]> load(String fixture) {
+        Matcher synthetic = SYNTHETIC.matcher(fixture);
+        if (synthetic.matches()) {
+            return List.of(synthetic(Integer.parseInt(synthetic.group(1)), "Benchmark Song"));
+        }
+
+        Path path = Path.of(fixture);
+        try (Stream<Path> files = Files.isDirectory(path) ? Files.list(path) : Stream.of(path)) {
+            List<byte[]> corpus = files
+                .filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".mp3"))
+                .sorted()
+                .map(Mp3Fixtures::read)
+                .toList();
+            if (corpus.isEmpty()) {
+                throw new IllegalArgumentException("No MP3 files in " + path);
+            }
+            return corpus;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A 128 kbps file of the given length with ID3v2 and ID3v1 tags; the title makes its content unique.
+     */
+    public static byte[] synthetic(int durationSeconds, String title) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeId3v2(out, title);
+
+        int frames = (int) Math.ceil(durationSeconds * 44100.0 / 1152);
+        for (int i = 0; i < frames; i++) {
+            // pad frames the way encoders do, so the stream averages exactly 128 kbps
+            int size = (int) ((i + 1) * AVERAGE_FRAME_SIZE) - (int) (i * AVERAGE_FRAME_SIZE);
+            byte[] frame = new byte[size];
+            System.arraycopy(FRAME_HEADER, 0, frame, 0, FRAME_HEADER.length);
+            if (size > (int) AVERAGE_FRAME_SIZE) {
+                frame[2] |= PADDING_BIT;
+            }
+            out.writeBytes(frame);
+        }
+
+        writeId3v1(out, title);
+        return out.toByteArray();
+    }
+
+    private static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeId3v2(ByteArrayOutputStream out, String title) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        writeTextFrame(frames, "TIT2", title);
+        writeTextFrame(frames, "TPE1", "Benchmark Artist");
+        writeTextFrame(frames, "TALB", "Benchmark Album");
+        writeTextFrame(frames, "TYER", "2024");
+
+        int size = frames.size();
+        out.writeBytes(new byte[] {'I', 'D', '3', 3, 0, 0});
+        // syncsafe size: 7 bits per byte
+        out.write((size >> 21) & 0x7F);
+        out.write((size >> 14) & 0x7F);
+        out.write((size >> 7) & 0x7F);
+        out.write(size & 0x7F);
+        out.writeBytes(frames.toByteArray());
+    }
+
+    private static void writeTextFrame(ByteArrayOutputStream out, String id, String text) {
+        byte[] value = text.getBytes(StandardCharsets.ISO_8859_1);
+        int size = value.length + 1;
+        out.writeBytes(id.getBytes(StandardCharsets.US_ASCII));
+        out.write(size >>> 24);
+        out.write(size >>> 16);
+        out.write(size >>> 8);
+        out.write(size);
+        out.write(0);
+        out.write(0);
+        out.write(0); // ISO-8859-1
+        out.writeBytes(value);
+    }
+
+    private static void writeId3v1(ByteArrayOutputStream out, String title) {
+        byte[] tag = new byte[128];
+        System.arraycopy("TAG".getBytes(StandardCharsets.US_ASCII), 0, tag, 0, 3);
+        copyPadded(tag, 3, 30, title);
+        copyPadded(tag, 33, 30, "Benchmark Artist");
+        copyPadded(tag, 63, 30, "Benchmark Album");
+        copyPadded(tag, 93, 4, "2024");
+        tag[127] = (byte) 0xFF;
+        out.writeBytes(tag);
+    }
+
+    private static void copyPadded(byte[] tag, int offset, int length, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(bytes, 0, tag, offset, Math.min(bytes.length, length));
+    }
+}
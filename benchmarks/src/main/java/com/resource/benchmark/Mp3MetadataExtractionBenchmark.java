@@ -0,0 +1,75 @@
+package com.resource.benchmark;
+
+import com.resource.metadata.Id3FrameMetadataReader;
+import com.resource.metadata.Mp3Metadata;
+import com.resource.metadata.TikaMp3MetadataReader;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.mp3.Mp3Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload-path metadata extraction: the per-request Tika parse that {@code ResourceService} used to run,
+ * the reusable Tika fallback reader, and the ID3/frame-header reader that replaced both. A corpus of
+ * several files is read round-robin, one file per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Mp3MetadataExtractionBenchmark {
+    /** {@code synthetic-<seconds>s}, or a path to real MP3s; see {@link Mp3Fixtures}. */
+    @Param({"synthetic-30s", "synthetic-180s"})
+    public String fixture;
+
+    private final Id3FrameMetadataReader id3FrameMetadataReader = new Id3FrameMetadataReader();
+    private final TikaMp3MetadataReader tikaMp3MetadataReader = new TikaMp3MetadataReader();
+    private List<byte[]> corpus;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        corpus = Mp3Fixtures.load(fixture);
+    }
+
+    @Benchmark
+    public Metadata tikaPerRequestParser() throws Exception {
+        BodyContentHandler handler = new BodyContentHandler();
+        Metadata metadata = new Metadata();
+        new Mp3Parser().parse(next(), handler, metadata, new ParseContext());
+        return metadata;
+    }
+
+    @Benchmark
+    public Mp3Metadata tikaReader() throws Exception {
+        return tikaMp3MetadataReader.read(next());
+    }
+
+    @Benchmark
+    public Mp3Metadata id3FrameReader() throws Exception {
+        return id3FrameMetadataReader.read(next());
+    }
+
+    private ByteArrayInputStream next() {
+        byte[] mp3 = corpus.get(index);
+        index = (index + 1) % corpus.size();
+        return new ByteArrayInputStream(mp3);
+    }
+}
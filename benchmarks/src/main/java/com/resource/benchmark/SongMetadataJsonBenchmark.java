@@ -0,0 +1,71 @@
+package com.resource.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.resource.dto.SongMetadataDto;
+import com.song.dto.SongMetadataRequest;
+import com.song.dto.SongMetadataResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * The JSON both ends of the metadata call handle: resource-service writes {@code SongMetadataDto},
+ * song-service reads it as {@code SongMetadataRequest} and writes {@code SongMetadataResponse}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SongMetadataJsonBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final SongMetadataDto songMetadataDto =
+        new SongMetadataDto(42, "Benchmark Song", "Benchmark Artist", "Benchmark Album", "03:35", "2024");
+    private final SongMetadataResponse songMetadataResponse =
+        new SongMetadataResponse(42, "Benchmark Song", "Benchmark Artist", "Benchmark Album", "03:35", "2024");
+    private List<SongMetadataResponse> page;
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        page = IntStream.rangeClosed(1, PAGE_SIZE)
+            .mapToObj(id -> new SongMetadataResponse(id, "Song " + id, "Artist", "Album", "03:35", "2024"))
+            .toList();
+        requestJson = objectMapper.writeValueAsBytes(songMetadataDto);
+    }
+
+    @Benchmark
+    public byte[] writeSongMetadataDto() throws Exception {
+        return objectMapper.writeValueAsBytes(songMetadataDto);
+    }
+
+    @Benchmark
+    public SongMetadataRequest readSongMetadataRequest() throws Exception {
+        return objectMapper.readValue(requestJson, SongMetadataRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeSongMetadataResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(songMetadataResponse);
+    }
+
+    @Benchmark
+    public byte[] writeSongMetadataResponsePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
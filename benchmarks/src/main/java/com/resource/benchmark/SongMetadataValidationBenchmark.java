@@ -0,0 +1,87 @@
+package com.resource.benchmark;
+
+import com.song.dto.SongMetadataRequest;
+import com.song.service.SongMetadataRequestValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation of {@code SongMetadataRequest} into the error map song-service returns: through Bean
+ * Validation, as it used to run on every create, against {@link SongMetadataRequestValidator}, which
+ * replaced it. An invalid request also pays for building the violations and their messages. That both
+ * return the same errors is checked by song-service's {@code SongMetadataRequestValidatorTest}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SongMetadataValidationBenchmark {
+    private final SongMetadataRequest valid =
+        new SongMetadataRequest(42, "Benchmark Song", "Benchmark Artist", "Benchmark Album", "03:35", "2024");
+    private final SongMetadataRequest invalid =
+        new SongMetadataRequest(null, "  ", "Benchmark Artist", "Benchmark Album", "3:5", "1850");
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Map<String, String> beanValidationValidRequest() {
+        return beanValidation(valid);
+    }
+
+    @Benchmark
+    public Map<String, String> beanValidationInvalidRequest() {
+        return beanValidation(invalid);
+    }
+
+    @Benchmark
+    public Map<String, String> precompiledValidRequest() {
+        return precompiled(valid);
+    }
+
+    @Benchmark
+    public Map<String, String> precompiledInvalidRequest() {
+        return precompiled(invalid);
+    }
+
+    private Map<String, String> beanValidation(SongMetadataRequest request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<SongMetadataRequest> violation : validator.validate(request)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static Map<String, String> precompiled(SongMetadataRequest request) {
+        return SongMetadataRequestValidator.validate(request);
+    }
+}
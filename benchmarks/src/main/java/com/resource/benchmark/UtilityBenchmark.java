@@ -0,0 +1,70 @@
+package com.resource.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Request parsing helpers of both services: duration formatting, path id parsing and id CSV parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UtilityBenchmark {
+    private static final int MAX_CSV_LENGTH = 200_000;
+
+    /** Ids in the CSV. */
+    @Param({"1", "20", "1000"})
+    public int ids;
+
+    private String csv;
+    // a field, not a literal, so the JIT cannot fold the parse away
+    private String id = "1048576";
+
+    @Setup
+    public void setUp() {
+        csv = IntStream.rangeClosed(1, ids)
+            .mapToObj(id -> String.valueOf(1_000_000 + id))
+            .collect(Collectors.joining(","));
+    }
+
+    @Benchmark
+    public String resourceFormatDuration() {
+        return com.resource.util.Utility.formatDuration("215.38");
+    }
+
+    @Benchmark
+    public int resourceParseAndValidateId() {
+        return com.resource.util.Utility.parseAndValidateId(id);
+    }
+
+    @Benchmark
+    public int songParseAndValidateId() {
+        return com.song.util.Utility.parseAndValidateId(id);
+    }
+
+    @Benchmark
+    public int[] resourceValidateAndParse() {
+        return com.resource.util.Utility.validateAndParse(csv, MAX_CSV_LENGTH);
+    }
+
+    @Benchmark
+    public int[] songValidateAndParse() {
+        return com.song.util.Utility.validateAndParse(csv, MAX_CSV_LENGTH);
+    }
+}
@@ -0,0 +1,358 @@
+package com.resource.e2e;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.resource.benchmark.Mp3Fixtures;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import javax.sql.DataSource;
+
+/**
+ * End-to-end throughput of resource-service and song-service together: both run from their executable
+ * jars against an embedded Postgres initialised with the compose init scripts, without Eureka, and are
+ * driven by virtual-thread workers over HTTP.
+ * <pre>
+ *   java -cp target/benchmarks.jar com.resource.e2e.ThroughputHarness \
+ *       --duration=PT30S --warmup=PT10S --concurrency=32 --virtual-threads=false
+ * </pre>
+ * Scenarios run in order, each warming up before it is measured:
+ * <ul>
+ *   <li>{@code upload}: {@code POST /resources} of distinct synthetic MP3s</li>
+ *   <li>{@code get-resource}: {@code GET /resources/{id}} of the uploaded files</li>
+ *   <li>{@code get-song}: {@code GET /songs/{id}}, once the outbox has delivered their metadata</li>
+ * </ul>
+ * {@code --virtual-threads} sets {@code spring.threads.virtual.enabled} on both services, so a run with
+ * each value compares the two request-handling modes on the same machine. Throughput, latency percentiles
+ * and errors per scenario are written as JSON to {@code --out}.
+ * Postgres refuses to run as root, so run the harness as an unprivileged user.
+ */
+public class ThroughputHarness {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration DELIVERY_TIMEOUT = Duration.ofMinutes(2);
+    private static final AtomicInteger SONG_COUNTER = new AtomicInteger();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final Map<String, String> options;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int concurrency;
+    private final int mp3Seconds;
+    private final List<Process> services = new ArrayList<>();
+    private final List<Integer> resourceIds = new CopyOnWriteArrayList<>();
+
+    ThroughputHarness(Map<String, String> options) {
+        this.options = options;
+        this.duration = Duration.parse(options.getOrDefault("duration", "PT30S"));
+        this.warmup = Duration.parse(options.getOrDefault("warmup", "PT10S"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        this.mp3Seconds = Integer.parseInt(options.getOrDefault("mp3-seconds", "30"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ThroughputHarness(parse(args)).run();
+        System.exit(0);
+    }
+
+    void run() throws Exception {
+        Path projectRoot = Path.of(options.getOrDefault("project-root", ".."));
+        Path initScripts = Path.of(options.getOrDefault("init-scripts", projectRoot.resolve("init-scripts").toString()));
+        Path resourceJar = jar(options.getOrDefault("resource-jar",
+            projectRoot.resolve("resource-service/target").toString()));
+        Path songJar = jar(options.getOrDefault("song-jar", projectRoot.resolve("song-service/target").toString()));
+        Path out = Path.of(options.getOrDefault("out", "target/e2e-result.json"));
+        Files.createDirectories(out.toAbsolutePath().getParent());
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            createDatabase(postgres, "resource_db", initScripts.resolve("resource-db/init.sql"));
+            createDatabase(postgres, "song_db", initScripts.resolve("song-db/init.sql"));
+
+            int songPort = freePort();
+            int resourcePort = freePort();
+            URI songService = URI.create("http://localhost:" + songPort);
+            URI resourceService = URI.create("http://localhost:" + resourcePort);
+
+            start(songJar, out.resolveSibling("e2e-song-service.log"),
+                "--server.port=" + songPort,
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "song_db"));
+            start(resourceJar, out.resolveSibling("e2e-resource-service.log"),
+                "--server.port=" + resourcePort,
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "resource_db"),
+                "--spring.cloud.discovery.client.simple.instances.song-service[0].uri=" + songService);
+            awaitHealthy(songService);
+            awaitHealthy(resourceService);
+
+            Map<String, Object> scenarios = new LinkedHashMap<>();
+            scenarios.put("upload", measure("upload", worker -> upload(resourceService)));
+            scenarios.put("get-resource", measure("get-resource", worker -> get(resourceService, "/resources/")));
+            awaitDelivered(songService);
+            scenarios.put("get-song", measure("get-song", worker -> get(songService, "/songs/")));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("duration", duration.toString());
+            settings.put("warmup", warmup.toString());
+            settings.put("concurrency", concurrency);
+            settings.put("mp3Seconds", mp3Seconds);
+            settings.put("virtualThreads", virtualThreads());
+            settings.put("javaVersion", Runtime.version().toString());
+            report.put("settings", settings);
+            report.put("scenarios", scenarios);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+            System.out.printf("Results written to %s%n", out.toAbsolutePath());
+        } finally {
+            services.forEach(Process::destroy);
+            for (Process service : services) {
+                service.waitFor();
+            }
+        }
+    }
+
+    /**
+     * Warms up, then runs the operation in a loop on {@code concurrency} virtual threads for the duration;
+     * the operation returns the HTTP status, anything but 2xx or a failed call counts as an error.
+     */
+    private ScenarioResult measure(String scenario, IntFunction<Integer> operation) throws InterruptedException {
+        System.out.printf("%s: warming up for %s%n", scenario, warmup);
+        drive(worker -> attempt(operation, worker), warmup, null);
+        System.out.printf("%s: measuring for %s with %d workers%n", scenario, duration, concurrency);
+
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        drive(worker -> {
+            long begin = System.nanoTime();
+            int status = attempt(operation, worker);
+            if (status < 200 || status >= 300) {
+                errors.incrementAndGet();
+            }
+            return System.nanoTime() - begin;
+        }, duration, latencies);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        ScenarioResult result = new ScenarioResult(sorted.length, errors.get(), sorted.length / elapsedSeconds,
+            percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+            sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        System.out.printf("%s: %s%n", scenario, result);
+        return result;
+    }
+
+    private static int attempt(IntFunction<Integer> operation, int worker) {
+        try {
+            return operation.apply(worker);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private void drive(IntFunction<? extends Number> operation, Duration runFor, ConcurrentLinkedQueue<long[]> samples)
+        throws InterruptedException {
+        long end = System.nanoTime() + runFor.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int worker = i;
+                workers.submit(() -> {
+                    long[] recorded = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        long value = operation.apply(worker).longValue();
+                        if (count == recorded.length) {
+                            recorded = Arrays.copyOf(recorded, count * 2);
+                        }
+                        recorded[count++] = value;
+                    }
+                    if (samples != null) {
+                        samples.add(Arrays.copyOf(recorded, count));
+                    }
+                });
+            }
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private int upload(URI resourceService) {
+        byte[] mp3 = Mp3Fixtures.synthetic(mp3Seconds, "E2E Song " + SONG_COUNTER.incrementAndGet());
+        HttpRequest request = HttpRequest.newBuilder(resourceService.resolve("/resources"))
+            .header("Content-Type", "audio/mpeg")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(mp3))
+            .build();
+        HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 200) {
+            resourceIds.add(Integer.parseInt(response.body().replaceAll("\\D", "")));
+        }
+        return response.statusCode();
+    }
+
+    private int get(URI service, String path) {
+        if (resourceIds.isEmpty()) {
+            throw new IllegalStateException("No resources were uploaded");
+        }
+        int id = resourceIds.get(ThreadLocalRandom.current().nextInt(resourceIds.size()));
+        HttpRequest request = HttpRequest.newBuilder(service.resolve(path + id)).GET().build();
+        return send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Metadata reaches song-service through the outbox; waits until the last uploaded resource has it.
+     */
+    private void awaitDelivered(URI songService) throws InterruptedException {
+        int lastId = resourceIds.stream().mapToInt(Integer::intValue).max().orElseThrow();
+        HttpRequest request = HttpRequest.newBuilder(songService.resolve("/songs/" + lastId)).GET().build();
+        long deadline = System.nanoTime() + DELIVERY_TIMEOUT.toNanos();
+        while (send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Song metadata for resource " + lastId + " was not delivered within "
+                    + DELIVERY_TIMEOUT);
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return httpClient.send(request, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling " + request.uri(), e);
+        }
+    }
+
+    private void createDatabase(EmbeddedPostgres postgres, String database, Path initScript)
+        throws SQLException, IOException {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        }
+        DataSource dataSource = postgres.getDatabase("postgres", database);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(Files.readString(initScript));
+        }
+    }
+
+    private void start(Path jar, Path log, String... arguments) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+            ProcessHandle.current().info().command().orElse("java"), "-jar", jar.toString(),
+            "--eureka.client.enabled=false",
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=postgres",
+            "--spring.jpa.show-sql=false",
+            "--spring.threads.virtual.enabled=" + virtualThreads()));
+        command.addAll(List.of(arguments));
+        services.add(new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start());
+        System.out.printf("Started %s, logging to %s%n", jar.getFileName(), log);
+    }
+
+    private void awaitHealthy(URI service) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(service.resolve("/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            if (services.stream().anyMatch(process -> !process.isAlive())) {
+                throw new IllegalStateException("A service exited during startup, see its log");
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(service + " did not become healthy within " + STARTUP_TIMEOUT);
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    private boolean virtualThreads() {
+        return Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+    }
+
+    /**
+     * The executable jar in a directory, or the given file.
+     */
+    private static Path jar(String location) throws IOException {
+        Path path = Path.of(location);
+        if (!Files.isDirectory(path)) {
+            return path;
+        }
+        try (var files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-exec.jar"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No executable jar in " + path
+                    + ", build it with mvn package"));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            options.put(separator > 0 ? option.substring(0, separator) : option,
+                separator > 0 ? option.substring(separator + 1) : "true");
+        }
+        return options;
+    }
+
+    /**
+     * One scenario's measurement; latencies are in milliseconds.
+     */
+    record ScenarioResult(long operations, long errors, double throughputPerSecond,
+                          double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+}
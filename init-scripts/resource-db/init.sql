@@ -1,4 +1,39 @@
+CREATE TABLE resource_blob (
+	content_hash char(64) PRIMARY KEY,
+	storage_key varchar(255) NOT NULL,
+	content_length bigint NOT NULL,
+	ref_count int NOT NULL,
+	name text,
+	artist text,
+	album text,
+	duration varchar(10),
+	year text
+);
+
+CREATE INDEX idx_resource_blob_storage_key ON resource_blob (storage_key);
+
 CREATE TABLE resource (
 	id SERIAL PRIMARY KEY,
-	content oid NOT NULL
+	content_hash char(64) NOT NULL REFERENCES resource_blob (content_hash),
+	content_type varchar(100) NOT NULL,
+	content_length bigint NOT NULL,
+	created_at timestamptz NOT NULL
+);
+
+CREATE INDEX idx_resource_content_hash ON resource (content_hash);
+
+CREATE TABLE outbox_event (
+	id BIGSERIAL PRIMARY KEY,
+	event_type varchar(32) NOT NULL,
+	resource_id int,
+	payload text NOT NULL,
+	status varchar(16) NOT NULL,
+	attempts int NOT NULL,
+	next_attempt_at timestamptz NOT NULL,
+	created_at timestamptz NOT NULL,
+	last_error text,
+	trace_context text
 );
+
+CREATE INDEX idx_outbox_event_due ON outbox_event (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX idx_outbox_event_resource_id ON outbox_event (resource_id) WHERE event_type = 'CREATE_SONG_METADATA';
@@ -0,0 +1,95 @@
+-- Upgrades a resource database created by the original init.sql, where resource(id, content oid) held
+-- each upload as its own large object, to the schema of the current init.sql. init.sql only runs on an
+-- empty volume, so run this once against an existing one before starting the new resource-service:
+--
+--   docker compose exec -T resource-db psql -v ON_ERROR_STOP=1 -U "$RESOURCE_DB_USERNAME" \
+--       -d "$RESOURCE_DB_NAME" < init-scripts/resource-db/upgrade.sql
+--
+-- Safe to run again; on a database that is already current it changes nothing. Existing content stays
+-- in its large objects, so keep RESOURCE_STORAGE_TYPE=database. Uploads with identical bytes end up
+-- sharing the lowest oid; the other copies are no longer referenced and are unlinked by the lo-gc job.
+-- Song metadata of existing content is parsed again the first time the same bytes are uploaded.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS resource_blob (
+	content_hash char(64) PRIMARY KEY,
+	storage_key varchar(255) NOT NULL,
+	content_length bigint NOT NULL,
+	ref_count int NOT NULL,
+	name text,
+	artist text,
+	album text,
+	duration varchar(10),
+	year text
+);
+
+CREATE INDEX IF NOT EXISTS idx_resource_blob_storage_key ON resource_blob (storage_key);
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+	id BIGSERIAL PRIMARY KEY,
+	event_type varchar(32) NOT NULL,
+	resource_id int,
+	payload text NOT NULL,
+	status varchar(16) NOT NULL,
+	attempts int NOT NULL,
+	next_attempt_at timestamptz NOT NULL,
+	created_at timestamptz NOT NULL,
+	last_error text,
+	trace_context text
+);
+
+-- the outbox of earlier versions kept only the W3C traceparent
+ALTER TABLE outbox_event
+	DROP COLUMN IF EXISTS trace_parent,
+	ADD COLUMN IF NOT EXISTS trace_context text;
+
+CREATE INDEX IF NOT EXISTS idx_outbox_event_due ON outbox_event (next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_outbox_event_resource_id ON outbox_event (resource_id)
+	WHERE event_type = 'CREATE_SONG_METADATA';
+
+DO $$
+DECLARE
+	item record;
+	bytes bytea;
+BEGIN
+	IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+	               WHERE table_schema = current_schema() AND table_name = 'resource' AND column_name = 'content') THEN
+		RETURN;
+	END IF;
+
+	ALTER TABLE resource
+		ADD COLUMN IF NOT EXISTS content_hash char(64),
+		ADD COLUMN IF NOT EXISTS content_type varchar(100),
+		ADD COLUMN IF NOT EXISTS content_length bigint,
+		ADD COLUMN IF NOT EXISTS created_at timestamptz;
+
+	-- one large object in memory at a time
+	FOR item IN SELECT id, content FROM resource WHERE content_hash IS NULL LOOP
+		bytes := lo_get(item.content);
+		UPDATE resource
+		SET content_hash = encode(sha256(bytes), 'hex'),
+		    content_type = 'audio/mpeg',
+		    content_length = octet_length(bytes),
+		    created_at = now()
+		WHERE id = item.id;
+	END LOOP;
+
+	INSERT INTO resource_blob (content_hash, storage_key, content_length, ref_count)
+	SELECT content_hash, min(content)::text, min(content_length), count(*)
+	FROM resource
+	GROUP BY content_hash;
+
+	ALTER TABLE resource
+		ALTER COLUMN content_hash SET NOT NULL,
+		ALTER COLUMN content_type SET NOT NULL,
+		ALTER COLUMN content_length SET NOT NULL,
+		ALTER COLUMN created_at SET NOT NULL,
+		ADD CONSTRAINT resource_content_hash_fkey FOREIGN KEY (content_hash) REFERENCES resource_blob (content_hash),
+		DROP COLUMN content;
+
+	CREATE INDEX idx_resource_content_hash ON resource (content_hash);
+END
+$$;
+
+COMMIT;
@@ -1,8 +1,29 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 CREATE TABLE song_metadata (
 	id INT PRIMARY KEY,
 	name varchar(100) NOT NULL,
 	album varchar(100) NOT NULL,
 	artist varchar(100) NOT NULL,
 	duration varchar(10) NOT NULL,
-	year varchar(255) NOT NULL
+	year varchar(255) NOT NULL,
+	-- derived search columns, kept current by Postgres on every insert and update
+	search_vector tsvector GENERATED ALWAYS AS (
+		setweight(to_tsvector('simple', name), 'A') ||
+		setweight(to_tsvector('simple', artist), 'B') ||
+		setweight(to_tsvector('simple', album), 'C')
+	) STORED,
+	search_text text GENERATED ALWAYS AS (name || ' ' || artist || ' ' || album) STORED
 );
+
+-- keyset listing: an exact-match filter seeks by (value, id) so pages come back in id order without a sort
+CREATE INDEX idx_song_metadata_artist_id ON song_metadata (artist, id);
+CREATE INDEX idx_song_metadata_album_id ON song_metadata (album, id);
+CREATE INDEX idx_song_metadata_year_id ON song_metadata (year, id);
+-- pattern ops so name LIKE 'prefix%' can use the index regardless of collation; a prefix spans many names,
+-- so the matches come back in name order and a name-only page is sorted by id after the range scan
+CREATE INDEX idx_song_metadata_name_prefix ON song_metadata (name varchar_pattern_ops);
+
+-- search: ranked prefix matches on words, then trigram similarity for misspellings
+CREATE INDEX idx_song_metadata_search_vector ON song_metadata USING gin (search_vector);
+CREATE INDEX idx_song_metadata_search_text ON song_metadata USING gin (search_text gin_trgm_ops);
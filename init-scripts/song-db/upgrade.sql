@@ -0,0 +1,34 @@
+-- Upgrades a song database created by an earlier init.sql to the schema of the current one. init.sql
+-- only runs on an empty volume, so run this once against an existing one before starting the new
+-- song-service:
+--
+--   docker compose exec -T song-db psql -v ON_ERROR_STOP=1 -U "$SONG_DB_USERNAME" \
+--       -d "$SONG_DB_NAME" < init-scripts/song-db/upgrade.sql
+--
+-- Safe to run again; on a database that is already current it changes nothing. Adding the generated
+-- columns rewrites song_metadata once, under an exclusive lock.
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- keyset listing: an exact-match filter seeks by (value, id) so pages come back in id order without a sort
+CREATE INDEX IF NOT EXISTS idx_song_metadata_artist_id ON song_metadata (artist, id);
+CREATE INDEX IF NOT EXISTS idx_song_metadata_album_id ON song_metadata (album, id);
+CREATE INDEX IF NOT EXISTS idx_song_metadata_year_id ON song_metadata (year, id);
+-- pattern ops so name LIKE 'prefix%' can use the index regardless of collation
+CREATE INDEX IF NOT EXISTS idx_song_metadata_name_prefix ON song_metadata (name varchar_pattern_ops);
+
+-- derived search columns, kept current by Postgres on every insert and update
+ALTER TABLE song_metadata
+	ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+		setweight(to_tsvector('simple', name), 'A') ||
+		setweight(to_tsvector('simple', artist), 'B') ||
+		setweight(to_tsvector('simple', album), 'C')
+	) STORED,
+	ADD COLUMN IF NOT EXISTS search_text text GENERATED ALWAYS AS (name || ' ' || artist || ' ' || album) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_song_metadata_search_vector ON song_metadata USING gin (search_vector);
+CREATE INDEX IF NOT EXISTS idx_song_metadata_search_text ON song_metadata USING gin (search_text gin_trgm_ops);
+
+COMMIT;
@@ -1,74 +1,249 @@
 package com.resource.client;
 
+import com.resource.dto.SongMetadataBatchItemDto;
 import com.resource.dto.SongMetadataDto;
 import com.resource.exception.InvalidMp3Exception;
+import com.resource.exception.SongServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Calls song-service through the pooled, load-balanced {@link RestClient}. Every call runs on its own
+ * virtual thread and is abandoned at {@code song-service.client.deadline}; interrupting the attempt
+ * closes its socket, so a hung instance costs one connection for at most the deadline.
+ * <p>
+ * Deletes are idempotent and can be hedged: when the first attempt has not answered within
+ * {@code song-service.client.hedge-delay}, a second one is sent, which the load balancer routes to the
+ * next instance, and the first answer wins.
+ * <p>
+ * Calls pass a circuit breaker; calls it turns away fail fast with {@link SongServiceUnavailableException}.
+ * There is no bulkhead: the only caller is the single-threaded outbox dispatcher, so at most one call
+ * (two while hedging) is ever in flight.
+ * <p>
+ * Every call, including those turned away, is timed as {@code song-service.client.requests} by
+ * operation and outcome.
+ */
 @Slf4j
 @Service
 public class SongMetadataClient {
 
-    private final RestTemplate restTemplate;
-    private final String baseUrl;
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final SongServiceDegradedMode degradedMode;
+    private final Duration deadline;
+    private final Duration hedgeDelay;
+    private final CallTimers createTimers;
+    private final CallTimers batchCreateTimers;
+    private final CallTimers deleteTimers;
+    // attempts carry the caller's trace, so their HTTP spans and traceparent header belong to it
+    private final ExecutorService executor = ContextExecutorService.wrap(
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("song-service-call-", 0).factory()));
 
+    public SongMetadataClient(RestClient songServiceRestClient,
+                              CircuitBreaker songServiceCircuitBreaker,
+                              @Value("${song-service.degraded-mode:DEFER}") SongServiceDegradedMode degradedMode,
+                              @Value("${song-service.client.deadline:PT10S}") Duration deadline,
+                              @Value("${song-service.client.hedge-delay:PT0S}") Duration hedgeDelay,
+                              MeterRegistry meterRegistry) {
+        this.restClient = songServiceRestClient;
+        this.circuitBreaker = songServiceCircuitBreaker;
+        this.degradedMode = degradedMode;
+        this.deadline = deadline;
+        this.hedgeDelay = hedgeDelay;
+        this.createTimers = CallTimers.register(meterRegistry, "create");
+        this.batchCreateTimers = CallTimers.register(meterRegistry, "batch-create");
+        this.deleteTimers = CallTimers.register(meterRegistry, "delete");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
-    public SongMetadataClient(RestTemplate restTemplate, @Value("${song-service.base-url}") String baseUrl) {
-        this.restTemplate = restTemplate;
-        this.baseUrl = baseUrl;
+    /**
+     * Whether calls are let through; false while the circuit breaker is open.
+     */
+    public boolean isAvailable() {
+        CircuitBreaker.State state = circuitBreaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * Refuses an upload while song-service is unavailable, if the degraded mode says so.
+     */
+    public void checkAcceptingUploads() {
+        if (degradedMode == SongServiceDegradedMode.REJECT && !isAvailable()) {
+            throw new SongServiceUnavailableException("Song metadata service is unavailable, try again later");
+        }
     }
 
     public void createSongMetadata(SongMetadataDto songMetadataDto) {
-        String url = baseUrl + "/songs";
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<SongMetadataDto> entity = new HttpEntity<>(songMetadataDto, headers);
+        call(createTimers, "Song metadata create", false, () -> {
+            try {
+                restClient.post()
+                    .uri("/songs")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(songMetadataDto)
+                    .retrieve()
+                    .toBodilessEntity();
+            } catch (HttpClientErrorException.BadRequest ex) {
+                // 400 - Invalid MP3 case
+                throw new InvalidMp3Exception("Invalid Mp3");
+            } catch (HttpClientErrorException.Conflict ex) {
+                // 409 - already created by an earlier delivery of the same request
+                log.info("Song metadata for resource ID={} already exists", songMetadataDto.id());
+            } catch (RestClientException ex) {
+                // Other HTTP or connection errors
+                throw new RuntimeException("SongMetadata Service failed: " + ex.getMessage(), ex);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Creates many song metadata records with one call; results come back in request order.
+     */
+    public List<SongMetadataBatchItemDto> createSongMetadataBatch(List<SongMetadataDto> songMetadata) {
+        return call(batchCreateTimers, "Song metadata batch create", false, () -> {
+            try {
+                return restClient.post()
+                    .uri("/songs/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(songMetadata)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<SongMetadataBatchItemDto>>() {});
+            } catch (RestClientException ex) {
+                throw new RuntimeException("SongMetadata Service batch create failed: " + ex.getMessage(), ex);
+            }
+        });
+    }
+
+    /**
+     * Deletes song metadata with the ids in the request body, so the batch size is not bound by URL length.
+     */
+    public Map<String, List<Integer>> deleteSongMetadata(List<Integer> ids) {
+        return call(deleteTimers, "Song metadata delete", true, () -> {
+            try {
+                return restClient.post()
+                    .uri("/songs/delete")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("ids", ids))
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<Map<String, List<Integer>>>() {});
+            } catch (RestClientException ex) {
+                throw new RuntimeException("Failed to delete song metadata: " + ex.getMessage(), ex);
+            }
+        });
+    }
 
+    private <T> T call(CallTimers timers, String operation, boolean hedged, Supplier<T> request) {
+        long start = System.nanoTime();
+        Timer timer = timers.error();
         try {
-            restTemplate.exchange(url, HttpMethod.POST, entity, Void.class);
-        } catch (HttpClientErrorException.BadRequest ex) {
-            // 400 - Invalid MP3 case
-            throw new InvalidMp3Exception("Invalid Mp3");
-        } catch (RestClientException ex) {
-            // Other HTTP or connection errors
-            throw new RuntimeException("SongMetadata Service failed: " + ex.getMessage(), ex);
+            T result = circuitBreaker.executeSupplier(() -> execute(operation, hedged, request));
+            timer = timers.success();
+            return result;
+        } catch (CallNotPermittedException e) {
+            timer = timers.rejected();
+            throw new SongServiceUnavailableException(operation + " not attempted, song-service circuit breaker is open");
+        } catch (InvalidMp3Exception e) {
+            timer = timers.invalid();
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public Map<String, List<Integer>> deleteSongMetadata(List<Integer> ids) {
-        String csv = ids.stream()
-            .map(String::valueOf)
-            .collect(Collectors.joining(","));
+    private <T> T execute(String operation, boolean hedged, Supplier<T> request) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        List<Future<?>> attempts = new ArrayList<>(2);
 
-        String url = baseUrl + "/songs?id=" + csv;
+        try {
+            attempts.add(executor.submit(() -> attempt(request, result, pending)));
+            if (hedged && hedgeDelay.isPositive() && hedgeDelay.compareTo(deadline) < 0) {
+                try {
+                    return result.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    log.debug("{} has not answered within {}, hedging", operation, hedgeDelay);
+                    pending.incrementAndGet();
+                    attempts.add(executor.submit(() -> attempt(request, result, pending)));
+                }
+            }
+            return result.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException(operation + " did not complete within " + deadline);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                ? cause
+                : new RuntimeException(operation + " failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(operation + " was interrupted", e);
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
 
+    private static <T> void attempt(Supplier<T> request, CompletableFuture<T> result, AtomicInteger pending) {
         try {
-            ResponseEntity<Map<String, List<Integer>>> response = restTemplate.exchange(
-                url,
-                HttpMethod.DELETE,
-                null,
-                new ParameterizedTypeReference<>() {}
-            );
-            return response.getBody();
-        } catch (RestClientException ex) {
-            throw new RuntimeException("Failed to delete song metadata: " + ex.getMessage(), ex);
+            result.complete(request.get());
+        } catch (RuntimeException e) {
+            // a failed attempt only fails the call when no other attempt can still answer
+            if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * The {@code song-service.client.requests} timers of one operation, registered once per outcome.
+     */
+    private record CallTimers(Timer success, Timer error, Timer rejected, Timer invalid) {
+
+        static CallTimers register(MeterRegistry meterRegistry, String operation) {
+            return new CallTimers(
+                timer(meterRegistry, operation, "success"),
+                timer(meterRegistry, operation, "error"),
+                timer(meterRegistry, operation, "rejected"),
+                timer(meterRegistry, operation, "invalid"));
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String operation, String outcome) {
+            return Timer.builder("song-service.client.requests")
+                .description("Calls to song-service, from submission to answer or failure")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
         }
     }
 }
@@ -0,0 +1,11 @@
+package com.resource.client;
+
+/**
+ * What uploads do while the song-service circuit breaker is open.
+ */
+public enum SongServiceDegradedMode {
+    /** Accept the upload and deliver its metadata from the outbox once song-service recovers. */
+    DEFER,
+    /** Refuse the upload with 503 so no resource exists without its metadata for long. */
+    REJECT
+}
@@ -1,16 +1,80 @@
 package com.resource.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
 
 @Configuration
 public class AppConfig {
 
+    /**
+     * Configured like Boot's own builder, so calls are observed and carry the trace context downstream.
+     */
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestClient.Builder loadBalancedRestClientBuilder(RestClientBuilderConfigurer configurer) {
+        return configurer.configure(RestClient.builder());
+    }
+
+    /**
+     * Pooled keep-alive connections to song-service instances. The pool is published as
+     * {@code httpcomponents.httpclient.pool.*} metrics tagged {@code httpclient=song-service}.
+     */
+    @Bean
+    public CloseableHttpClient songServiceHttpClient(
+        @Value("${song-service.client.max-connections:50}") int maxConnections,
+        @Value("${song-service.client.max-connections-per-route:20}") int maxConnectionsPerRoute,
+        @Value("${song-service.client.connect-timeout:PT1S}") Duration connectTimeout,
+        @Value("${song-service.client.response-timeout:PT5S}") Duration responseTimeout,
+        @Value("${song-service.client.idle-timeout:PT30S}") Duration idleTimeout,
+        MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnectionsPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(responseTimeout))
+                // probe connections that sat idle, the instance may have closed them
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "song-service").bindTo(meterRegistry);
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                // waiting for a free pooled connection counts against the connect budget
+                .setConnectionRequestTimeout(Timeout.of(connectTimeout))
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(idleTimeout))
+            .build();
+    }
+
+    @Bean
+    public RestClient songServiceRestClient(@LoadBalanced RestClient.Builder builder,
+                                            CloseableHttpClient songServiceHttpClient,
+                                            @Value("${song-service.base-url}") String baseUrl) {
+        return builder.clone()
+            .baseUrl(baseUrl)
+            .requestFactory(new HttpComponentsClientHttpRequestFactory(songServiceHttpClient))
+            .build();
     }
 }
@@ -0,0 +1,51 @@
+package com.resource.config;
+
+import com.resource.exception.InvalidMp3Exception;
+import com.resource.exception.SongServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker around the song-service calls, published as the {@code resilience4j.circuitbreaker.*} metrics.
+ */
+@Configuration
+public class ResilienceConfig {
+    public static final String SONG_SERVICE = "song-service";
+
+    @Bean
+    public CircuitBreaker songServiceCircuitBreaker(
+        @Value("${song-service.resilience.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+        @Value("${song-service.resilience.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+        @Value("${song-service.resilience.circuit-breaker.slow-call-duration:PT3S}") Duration slowCallDuration,
+        @Value("${song-service.resilience.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+        @Value("${song-service.resilience.circuit-breaker.minimum-calls:10}") int minimumCalls,
+        @Value("${song-service.resilience.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+        @Value("${song-service.resilience.circuit-breaker.half-open-calls:1}") int halfOpenCalls,
+        MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(slowCallRateThreshold)
+            .slowCallDurationThreshold(slowCallDuration)
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumCalls)
+            .waitDurationInOpenState(openDuration)
+            // after the open period the next calls are the probe; the dispatcher only calls while not open
+            .automaticTransitionFromOpenToHalfOpenEnabled(true)
+            .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+            // a rejected MP3 or a local rejection says nothing about the health of song-service
+            .ignoreExceptions(InvalidMp3Exception.class, SongServiceUnavailableException.class)
+            .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(SONG_SERVICE);
+    }
+}
@@ -0,0 +1,63 @@
+package com.resource.config;
+
+import com.resource.repository.LargeObjectRepository;
+import com.resource.storage.BlobStore;
+import com.resource.storage.FileSystemBlobStore;
+import com.resource.storage.LargeObjectBlobStore;
+import com.resource.storage.S3BlobStore;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Selects the {@link BlobStore} for resource content with {@code resource.storage.type}:
+ * {@code database} (default), {@code filesystem} or {@code s3}.
+ */
+@Configuration
+@EnableConfigurationProperties(StorageProperties.class)
+public class StorageConfig {
+
+    private static final String STORAGE_TYPE = "resource.storage.type";
+
+    @Bean
+    @ConditionalOnProperty(name = STORAGE_TYPE, havingValue = "database", matchIfMissing = true)
+    public BlobStore largeObjectBlobStore(LargeObjectRepository largeObjectRepository) {
+        return new LargeObjectBlobStore(largeObjectRepository);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STORAGE_TYPE, havingValue = "filesystem")
+    public BlobStore fileSystemBlobStore(StorageProperties properties) throws IOException {
+        return new FileSystemBlobStore(properties.filesystem().root());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STORAGE_TYPE, havingValue = "s3")
+    public S3Client s3Client(StorageProperties properties) {
+        StorageProperties.S3 s3 = properties.s3();
+        var builder = S3Client.builder()
+            .region(Region.of(s3.region()))
+            .credentialsProvider(StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(s3.accessKey(), s3.secretKey())))
+            .forcePathStyle(s3.pathStyleAccess());
+        if (s3.endpoint() != null && !s3.endpoint().isBlank()) {
+            builder.endpointOverride(URI.create(s3.endpoint()));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STORAGE_TYPE, havingValue = "s3")
+    public BlobStore s3BlobStore(S3Client s3Client, StorageProperties properties) throws IOException {
+        return new S3BlobStore(s3Client, properties.s3().bucket(), properties.s3().spoolDir());
+    }
+}
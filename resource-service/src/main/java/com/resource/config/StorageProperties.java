@@ -0,0 +1,16 @@
+package com.resource.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties(prefix = "resource.storage")
+public record StorageProperties(String type, FileSystem filesystem, S3 s3) {
+
+    public record FileSystem(Path root) {
+    }
+
+    public record S3(String endpoint, String region, String bucket, String accessKey, String secretKey,
+                     boolean pathStyleAccess, Path spoolDir) {
+    }
+}
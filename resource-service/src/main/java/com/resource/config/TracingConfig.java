@@ -0,0 +1,22 @@
+package com.resource.config;
+
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.contextpropagation.ObservationAwareSpanThreadLocalAccessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Lets spans that are not observations, such as the outbox delivery span, follow a call onto the
+     * executors that context propagation wraps, like the song-service client's.
+     */
+    @Bean
+    public ObservationAwareSpanThreadLocalAccessor observationAwareSpanThreadLocalAccessor(Tracer tracer) {
+        ObservationAwareSpanThreadLocalAccessor accessor = new ObservationAwareSpanThreadLocalAccessor(tracer);
+        ContextRegistry.getInstance().registerThreadLocalAccessor(accessor);
+        return accessor;
+    }
+}
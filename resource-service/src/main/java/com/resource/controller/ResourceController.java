@@ -1,9 +1,20 @@
 package com.resource.controller;
 
-import com.resource.dto.ResourceDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resource.dto.ResourceBulkDeleteRequestDto;
+import com.resource.dto.ResourceContentDto;
+import com.resource.dto.ResourceImportResultDto;
+import com.resource.dto.ResourceLookupItemDto;
+import com.resource.service.ResourceBulkDeleteService;
+import com.resource.service.ResourceImportService;
 import com.resource.service.ResourceService;
+import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,8 +25,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -26,25 +49,225 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class ResourceController {
 
+    private static final String ACCEPT_RANGES_BYTES = "bytes";
+    private static final String CONTENT_SHA256_HEADER = "X-Content-SHA256";
+    // Tomcat request attributes that hand a file region to the connector instead of writing a body
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    // below this a plain write is cheaper than handing the file to the poller, as in Tomcat's DefaultServlet
+    private static final long SENDFILE_MIN_LENGTH = 48 * 1024;
+    // the bytes behind an id never change; the gateway drops its copy when the resource is deleted through
+    // it, clients may keep theirs for a minute
+    private static final CacheControl CONTENT_CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofMinutes(1)).sMaxAge(Duration.ofHours(1));
+    // which ids exist changes with every upload and delete, so lookups stay short-lived
+    private static final CacheControl LOOKUP_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(5));
+
     private final ResourceService resourceService;
+    private final ResourceImportService resourceImportService;
+    private final ResourceBulkDeleteService resourceBulkDeleteService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<Map<String, Integer>> uploadResource(@RequestBody(required = false) byte[] data,
+    public ResponseEntity<Map<String, Integer>> uploadResource(InputStream content,
                                                                @RequestHeader(value = HttpHeaders.CONTENT_TYPE,
-                                                                   required = false) String contentType) {
-        ResourceDto resourceCreateRequest = new ResourceDto(data, contentType);
-        return ResponseEntity.ok(resourceService.saveResource(resourceCreateRequest));
+                                                                   required = false) String contentType,
+                                                               @RequestHeader(value = CONTENT_SHA256_HEADER,
+                                                                   required = false) String contentHash) {
+        return ResponseEntity.ok(resourceService.saveResource(contentType, contentHash, content));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<List<ResourceImportResultDto>> importResources(
+        @RequestPart("files") List<MultipartFile> files) {
+        return ResponseEntity.ok(resourceImportService.importFiles(files));
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/zip", "application/x-zip-compressed"})
+    public ResponseEntity<List<ResourceImportResultDto>> importResourceArchive(InputStream archive) {
+        return ResponseEntity.ok(resourceImportService.importZip(archive));
+    }
+
+    @GetMapping(params = "id")
+    public ResponseEntity<List<ResourceLookupItemDto>> getResourceInfos(@RequestParam("id") String ids) {
+        return ResponseEntity.ok()
+            .cacheControl(LOOKUP_CACHE_CONTROL)
+            .body(resourceService.getResourceInfos(ids));
     }
 
+    /**
+     * Serves {@code GET} and {@code HEAD}. Headers come from the resource row alone; the blob is only
+     * read when a body is actually sent, so {@code HEAD} and {@code 304 Not Modified} never touch it.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<byte[]> getResource(@PathVariable("id") String id) {
-        ResourceDto resource = resourceService.getResource(id);
-        return ResponseEntity.ok().contentType(MediaType.valueOf(resource.contentType()))
-            .body(resource.data());
+    public ResponseEntity<StreamingResponseBody> getResource(@PathVariable("id") String id,
+                                                             @RequestHeader(value = HttpHeaders.RANGE,
+                                                                 required = false) String range,
+                                                             @RequestHeader(value = HttpHeaders.IF_RANGE,
+                                                                 required = false) String ifRange,
+                                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                 required = false) String ifNoneMatch,
+                                                             HttpMethod method,
+                                                             HttpServletRequest request) {
+        ResourceContentDto content = resourceService.getResourceContent(id);
+        long length = content.contentLength();
+        long lastModified = content.createdAt().toEpochMilli();
+
+        if (matchesAny(ifNoneMatch, content.eTag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(content.eTag())
+                .cacheControl(CONTENT_CACHE_CONTROL)
+                .lastModified(lastModified)
+                .build();
+        }
+
+        HttpRange requestedRange = HttpMethod.HEAD.equals(method)
+            ? null
+            : resolveRange(range, ifRange, content.eTag(), lastModified);
+        if (requestedRange == null) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.ACCEPT_RANGES, ACCEPT_RANGES_BYTES)
+                .eTag(content.eTag())
+                .cacheControl(CONTENT_CACHE_CONTROL)
+                .lastModified(lastModified)
+                .contentType(MediaType.valueOf(content.contentType()))
+                .contentLength(length);
+            return HttpMethod.HEAD.equals(method)
+                ? response.build()
+                : withContent(response, content, 0, length, request);
+        }
+
+        long start = requestedRange.getRangeStart(length);
+        long end = requestedRange.getRangeEnd(length);
+        if (start >= length || start > end) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.ACCEPT_RANGES, ACCEPT_RANGES_BYTES)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+        }
+
+        long rangeLength = end - start + 1;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+            .header(HttpHeaders.ACCEPT_RANGES, ACCEPT_RANGES_BYTES)
+            .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length)
+            .eTag(content.eTag())
+            .cacheControl(CONTENT_CACHE_CONTROL)
+            .lastModified(lastModified)
+            .contentType(MediaType.valueOf(content.contentType()))
+            .contentLength(rangeLength);
+        return withContent(response, content, start, rangeLength, request);
     }
 
     @DeleteMapping
     public ResponseEntity<Map<String, List<Integer>>> deleteResources(@RequestParam("id") String ids) {
         return ResponseEntity.ok(resourceService.deleteByIds(ids));
     }
+
+    /**
+     * Bulk delete by id list or id range in the body. Progress is streamed as one JSON line per committed
+     * chunk, followed by a line with {@code done} set; a response without that line was cut short.
+     */
+    @PostMapping(value = "/delete", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> deleteResourcesInBulk(@RequestBody ResourceBulkDeleteRequestDto request) {
+        resourceBulkDeleteService.validate(request);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(out -> writeDeleteProgress(request, out));
+    }
+
+    private void writeDeleteProgress(ResourceBulkDeleteRequestDto request, OutputStream out) throws IOException {
+        try {
+            resourceBulkDeleteService.delete(request, progress -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(progress));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Completes the response with the given bytes of the content. When the blob is a local file and the
+     * connector supports it, the region is left to Tomcat's sendfile and no body is written here;
+     * otherwise the blob store streams it after the handler returns.
+     */
+    private ResponseEntity<StreamingResponseBody> withContent(ResponseEntity.BodyBuilder response,
+                                                              ResourceContentDto content, long offset, long length,
+                                                              HttpServletRequest request) {
+        if (length >= SENDFILE_MIN_LENGTH && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            Path file = resourceService.getContentFile(content, length);
+            if (file != null) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, file.toString());
+                request.setAttribute(SENDFILE_START_ATTR, offset);
+                request.setAttribute(SENDFILE_END_ATTR, offset + length);
+                return response.build();
+            }
+        }
+        return response.body(out -> resourceService.writeContent(content, offset, length, out));
+    }
+
+    /**
+     * Weak comparison of an {@code If-None-Match} list against the current ETag, as GET and HEAD require.
+     */
+    private boolean matchesAny(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the single byte range to serve, or {@code null} when the full content should be sent:
+     * no or malformed {@code Range}, several ranges, or an {@code If-Range} validator that no longer matches.
+     */
+    private HttpRange resolveRange(String range, String ifRange, String eTag, long lastModified) {
+        if (range == null || range.isBlank()) {
+            return null;
+        }
+
+        if (ifRange != null && !matchesIfRange(ifRange.trim(), eTag, lastModified)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Strong comparison of an {@code If-Range} validator: either the current ETag, or an HTTP-date equal
+     * to the {@code Last-Modified} sent with the content, which is the upload time to the second.
+     */
+    private boolean matchesIfRange(String ifRange, String eTag, long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(eTag);
+        }
+
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return date == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package com.resource.dto;
+
+import java.util.List;
+
+/**
+ * Either an explicit list of ids or an inclusive id range, not both.
+ */
+public record ResourceBulkDeleteRequestDto(List<Integer> ids, Integer fromId, Integer toId) {
+}
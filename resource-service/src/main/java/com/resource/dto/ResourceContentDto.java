@@ -0,0 +1,7 @@
+package com.resource.dto;
+
+import java.time.Instant;
+
+public record ResourceContentDto(Integer id, String contentHash, String contentType, long contentLength,
+                                 Instant createdAt, String eTag) {
+}
@@ -0,0 +1,10 @@
+package com.resource.dto;
+
+import java.util.List;
+
+/**
+ * One line of a streamed bulk delete: the ids of a committed chunk and the running total; the last
+ * line has {@code done} set and no ids.
+ */
+public record ResourceDeleteProgressDto(List<Integer> ids, long deleted, boolean done) {
+}
@@ -1,4 +0,0 @@
-package com.resource.dto;
-
-public record ResourceDto(byte[] data, String contentType) {
-}
@@ -0,0 +1,4 @@
+package com.resource.dto;
+
+public record ResourceImportResultDto(String fileName, Integer id, String errorMessage) {
+}
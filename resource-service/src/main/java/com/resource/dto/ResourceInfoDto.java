@@ -0,0 +1,7 @@
+package com.resource.dto;
+
+import java.time.Instant;
+
+public record ResourceInfoDto(Integer id, String contentType, Long contentLength, String contentHash,
+                              Instant createdAt) {
+}
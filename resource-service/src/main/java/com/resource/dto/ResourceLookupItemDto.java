@@ -0,0 +1,4 @@
+package com.resource.dto;
+
+public record ResourceLookupItemDto(Integer id, ResourceLookupStatus status, ResourceInfoDto resource) {
+}
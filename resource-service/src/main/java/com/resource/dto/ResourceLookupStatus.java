@@ -0,0 +1,6 @@
+package com.resource.dto;
+
+public enum ResourceLookupStatus {
+    FOUND,
+    NOT_FOUND
+}
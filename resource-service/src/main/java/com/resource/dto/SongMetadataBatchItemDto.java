@@ -0,0 +1,13 @@
+package com.resource.dto;
+
+import java.util.Map;
+
+public record SongMetadataBatchItemDto(Integer id, String status, String errorMessage, Map<String, String> details) {
+
+    public static final String CREATED = "CREATED";
+    public static final String ALREADY_EXISTS = "ALREADY_EXISTS";
+
+    public boolean isDelivered() {
+        return CREATED.equals(status) || ALREADY_EXISTS.equals(status);
+    }
+}
@@ -0,0 +1,6 @@
+package com.resource.entity;
+
+public enum OutboxEventStatus {
+    PENDING,
+    FAILED
+}
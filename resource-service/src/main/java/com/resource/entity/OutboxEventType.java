@@ -0,0 +1,6 @@
+package com.resource.entity;
+
+public enum OutboxEventType {
+    CREATE_SONG_METADATA,
+    DELETE_SONG_METADATA
+}
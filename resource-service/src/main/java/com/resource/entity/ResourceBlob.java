@@ -0,0 +1,39 @@
+package com.resource.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * One stored copy of uploaded content, shared by every resource with the same SHA-256.
+ * The metadata extracted from the first upload is kept alongside so duplicates skip parsing.
+ */
+@Data
+@Entity
+@Table(name = "resource_blob")
+public class ResourceBlob {
+    @Id
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(name = "storage_key", nullable = false)
+    private String storageKey;
+
+    @Column(name = "content_length", nullable = false)
+    private Long contentLength;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    private String name;
+
+    private String artist;
+
+    private String album;
+
+    private String duration;
+
+    private String year;
+}
@@ -43,6 +43,17 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(SongServiceUnavailableException.class)
+    public ResponseEntity<SimpleErrorResponse> handleSongServiceUnavailable(SongServiceUnavailableException ex) {
+        SimpleErrorResponse errorResponse = new SimpleErrorResponse(
+                ex.getMessage(),
+                String.valueOf(HttpStatus.SERVICE_UNAVAILABLE.value())
+        );
+
+        log.warn("Song service unavailable:{}",ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<SimpleErrorResponse> handleGeneralException(Exception ex) {
         SimpleErrorResponse errorResponse = new SimpleErrorResponse(
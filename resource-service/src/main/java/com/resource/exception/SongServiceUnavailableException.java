@@ -0,0 +1,7 @@
+package com.resource.exception;
+
+public class SongServiceUnavailableException extends RuntimeException {
+    public SongServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,471 @@
+package com.resource.metadata;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads MP3 metadata from the ID3v2 tag, the first MPEG frame header (with its Xing/Info or VBRI
+ * header when present) and the trailing ID3v1 tag, without decoding the audio frames in between.
+ * <p>
+ * The stream is still read to the end, because the upload is teed into storage while this runs
+ * and the ID3v1 tag and the CBR duration depend on the total length; past the first frame that is
+ * a plain buffered copy. Returns {@code null} when the file uses something this reader does not
+ * handle (unsynchronised or compressed tags, no MPEG frame near the start), so the caller can fall
+ * back to {@link TikaMp3MetadataReader}.
+ */
+@Component
+public class Id3FrameMetadataReader {
+    private static final int ID3V2_HEADER_SIZE = 10;
+    private static final int ID3V1_SIZE = 128;
+    private static final int MAX_TEXT_FRAME_SIZE = 64 * 1024;
+    private static final int MAX_SYNC_SCAN = 64 * 1024;
+    private static final int FRAME_PROBE_SIZE = 64;
+
+    private static final int MPEG_1 = 3;
+    private static final int LAYER_2 = 2;
+    private static final int LAYER_1 = 3;
+
+    private static final int[][] BITRATES_KBPS = {
+        // MPEG-1 layer I, II, III
+        {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},
+        {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},
+        {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320},
+        // MPEG-2/2.5 layer I, II & III
+        {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},
+        {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}
+    };
+    private static final int[][] SAMPLE_RATES = {
+        {11025, 12000, 8000},   // MPEG-2.5
+        {},                     // reserved
+        {22050, 24000, 16000},  // MPEG-2
+        {44100, 48000, 32000}   // MPEG-1
+    };
+
+    public Mp3Metadata read(InputStream content) throws IOException {
+        Cursor cursor = new Cursor(content);
+        Tags tags = new Tags();
+
+        if (cursor.ensure(ID3V2_HEADER_SIZE) >= ID3V2_HEADER_SIZE && cursor.startsWith("ID3")) {
+            if (!readId3v2(cursor, tags)) {
+                cursor.drain();
+                return null;
+            }
+        }
+
+        FrameHeader frame = findFirstFrame(cursor);
+        if (frame == null) {
+            cursor.drain();
+            return null;
+        }
+        long firstFrameOffset = cursor.position();
+        long frameCount = readFrameCount(cursor, frame);
+
+        byte[] tail = cursor.drain();
+        long totalLength = cursor.position();
+        boolean hasId3v1 = readId3v1(tail, tags);
+
+        double duration;
+        if (frameCount > 0) {
+            duration = (double) frameCount * frame.samplesPerFrame() / frame.sampleRate();
+        } else {
+            long audioBytes = totalLength - firstFrameOffset - (hasId3v1 ? ID3V1_SIZE : 0);
+            duration = audioBytes * 8.0 / (frame.bitrateKbps() * 1000.0);
+        }
+
+        return new Mp3Metadata(tags.title, tags.artist, tags.album, String.valueOf(duration), tags.year);
+    }
+
+    /**
+     * @return {@code false} when the tag uses a feature that needs the full parser, or the stream ends inside it
+     */
+    private boolean readId3v2(Cursor cursor, Tags tags) throws IOException {
+        byte[] header = cursor.readFully(ID3V2_HEADER_SIZE);
+        int major = header[3];
+        int flags = header[5] & 0xFF;
+        long tagEnd = ID3V2_HEADER_SIZE + syncsafe(header, 6);
+
+        if (major < 2 || major > 4 || (flags & 0x80) != 0 || (major == 2 && (flags & 0x40) != 0)) {
+            return false;
+        }
+
+        if (major >= 3 && (flags & 0x40) != 0) {
+            byte[] extendedSize = cursor.readFully(4);
+            if (extendedSize == null) {
+                return false;
+            }
+            long size = major == 3 ? int32(extendedSize, 0) : syncsafe(extendedSize, 0) - 4;
+            cursor.skip(size);
+        }
+
+        int idLength = major == 2 ? 3 : 4;
+        int frameHeaderSize = major == 2 ? 6 : 10;
+
+        while (cursor.position() + frameHeaderSize <= tagEnd) {
+            byte[] frameHeader = cursor.readFully(frameHeaderSize);
+            if (frameHeader == null) {
+                return false;
+            }
+            if (frameHeader[0] == 0) {
+                // padding
+                break;
+            }
+
+            String id = new String(frameHeader, 0, idLength, StandardCharsets.ISO_8859_1);
+            long size = switch (major) {
+                case 2 -> ((frameHeader[3] & 0xFFL) << 16) | ((frameHeader[4] & 0xFFL) << 8) | (frameHeader[5] & 0xFFL);
+                case 3 -> int32(frameHeader, 4);
+                default -> syncsafe(frameHeader, 4);
+            };
+            if (size <= 0 || cursor.position() + size > tagEnd) {
+                break;
+            }
+
+            String field = tags.fieldFor(id);
+            if (field == null) {
+                cursor.skip(size);
+                continue;
+            }
+
+            int formatFlags = major == 2 ? 0 : frameHeader[9] & 0xFF;
+            boolean unsupported = major == 3
+                ? (formatFlags & 0xC0) != 0                  // compression, encryption
+                : major == 4 && (formatFlags & 0x0E) != 0;   // compression, encryption, unsynchronisation
+            if (unsupported || size > MAX_TEXT_FRAME_SIZE) {
+                return false;
+            }
+
+            byte[] data = cursor.readFully((int) size);
+            if (data == null) {
+                return false;
+            }
+            int offset = 0;
+            if (major == 3 && (formatFlags & 0x20) != 0) {
+                offset += 1;   // group id
+            }
+            if (major == 4 && (formatFlags & 0x40) != 0) {
+                offset += 1;   // group id
+            }
+            if (major == 4 && (formatFlags & 0x01) != 0) {
+                offset += 4;   // data length indicator
+            }
+            tags.setIfAbsent(field, decodeText(data, offset));
+        }
+
+        long remaining = tagEnd - cursor.position();
+        if (major == 4 && (flags & 0x10) != 0) {
+            remaining += ID3V2_HEADER_SIZE;   // footer
+        }
+        cursor.skip(remaining);
+        return true;
+    }
+
+    private FrameHeader findFirstFrame(Cursor cursor) throws IOException {
+        long scanEnd = cursor.position() + MAX_SYNC_SCAN;
+        while (cursor.position() < scanEnd) {
+            if (cursor.ensure(4) < 4) {
+                return null;
+            }
+            FrameHeader frame = FrameHeader.parse(cursor.peek(0), cursor.peek(1), cursor.peek(2), cursor.peek(3));
+            if (frame != null && isFollowedByFrame(cursor, frame)) {
+                return frame;
+            }
+            cursor.skip(1);
+        }
+        return null;
+    }
+
+    /**
+     * Guards against a false sync inside junk data: a real frame is followed by another one with
+     * the same stream parameters, unless the stream ends there.
+     */
+    private boolean isFollowedByFrame(Cursor cursor, FrameHeader frame) throws IOException {
+        int needed = frame.length() + 4;
+        if (cursor.ensure(needed) < needed) {
+            return true;
+        }
+        int offset = frame.length();
+        FrameHeader next = FrameHeader.parse(
+            cursor.peek(offset), cursor.peek(offset + 1), cursor.peek(offset + 2), cursor.peek(offset + 3));
+        return next != null && next.version() == frame.version() && next.layer() == frame.layer()
+            && next.sampleRate() == frame.sampleRate();
+    }
+
+    /**
+     * Frame count from a Xing/Info or VBRI header in the first frame, or 0 when there is none (CBR).
+     */
+    private long readFrameCount(Cursor cursor, FrameHeader frame) throws IOException {
+        int available = Math.min(cursor.ensure(FRAME_PROBE_SIZE), frame.length());
+
+        int xingOffset = 4 + frame.sideInfoSize();
+        if (available >= xingOffset + 12 && (cursor.matches(xingOffset, "Xing") || cursor.matches(xingOffset, "Info"))) {
+            int flags = cursor.int32At(xingOffset + 4);
+            if ((flags & 0x01) != 0) {
+                return cursor.int32At(xingOffset + 8) & 0xFFFFFFFFL;
+            }
+        }
+
+        int vbriOffset = 4 + 32;
+        if (available >= vbriOffset + 18 && cursor.matches(vbriOffset, "VBRI")) {
+            return cursor.int32At(vbriOffset + 14) & 0xFFFFFFFFL;
+        }
+        return 0;
+    }
+
+    private boolean readId3v1(byte[] tail, Tags tags) {
+        if (tail.length < ID3V1_SIZE || tail[0] != 'T' || tail[1] != 'A' || tail[2] != 'G') {
+            return false;
+        }
+        tags.setIfAbsent(Tags.TITLE, latin1(tail, 3, 30));
+        tags.setIfAbsent(Tags.ARTIST, latin1(tail, 33, 30));
+        tags.setIfAbsent(Tags.ALBUM, latin1(tail, 63, 30));
+        tags.setIfAbsent(Tags.YEAR, latin1(tail, 93, 4));
+        return true;
+    }
+
+    private static String decodeText(byte[] data, int offset) {
+        if (offset >= data.length) {
+            return null;
+        }
+
+        int encoding = data[offset];
+        int start = offset + 1;
+        Charset charset = switch (encoding) {
+            case 1 -> StandardCharsets.UTF_16;
+            case 2 -> StandardCharsets.UTF_16BE;
+            case 3 -> StandardCharsets.UTF_8;
+            default -> StandardCharsets.ISO_8859_1;
+        };
+
+        // the first value ends at its terminator (v2.4 may list several)
+        int end = start;
+        if (encoding == 1 || encoding == 2) {
+            while (end + 1 < data.length && (data[end] != 0 || data[end + 1] != 0)) {
+                end += 2;
+            }
+        } else {
+            while (end < data.length && data[end] != 0) {
+                end++;
+            }
+        }
+
+        String value = new String(data, start, Math.min(end, data.length) - start, charset);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String latin1(byte[] data, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && data[end] != 0) {
+            end++;
+        }
+        String value = new String(data, offset, end - offset, StandardCharsets.ISO_8859_1).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long syncsafe(byte[] b, int offset) {
+        return ((b[offset] & 0x7FL) << 21) | ((b[offset + 1] & 0x7FL) << 14)
+            | ((b[offset + 2] & 0x7FL) << 7) | (b[offset + 3] & 0x7FL);
+    }
+
+    private static long int32(byte[] b, int offset) {
+        return ((b[offset] & 0xFFL) << 24) | ((b[offset + 1] & 0xFFL) << 16)
+            | ((b[offset + 2] & 0xFFL) << 8) | (b[offset + 3] & 0xFFL);
+    }
+
+    private static final class Tags {
+        static final String TITLE = "title";
+        static final String ARTIST = "artist";
+        static final String ALBUM = "album";
+        static final String YEAR = "year";
+
+        String title;
+        String artist;
+        String album;
+        String year;
+
+        String fieldFor(String frameId) {
+            return switch (frameId) {
+                case "TIT2", "TT2" -> TITLE;
+                case "TPE1", "TP1" -> ARTIST;
+                case "TALB", "TAL" -> ALBUM;
+                case "TYER", "TDRC", "TYE" -> YEAR;
+                default -> null;
+            };
+        }
+
+        void setIfAbsent(String field, String value) {
+            if (value == null) {
+                return;
+            }
+            switch (field) {
+                case TITLE -> title = title == null ? value : title;
+                case ARTIST -> artist = artist == null ? value : artist;
+                case ALBUM -> album = album == null ? value : album;
+                case YEAR -> year = year == null ? value : year;
+                default -> throw new IllegalArgumentException(field);
+            }
+        }
+    }
+
+    private record FrameHeader(int version, int layer, int bitrateKbps, int sampleRate, int length,
+                               int samplesPerFrame, int sideInfoSize) {
+
+        static FrameHeader parse(int b0, int b1, int b2, int b3) {
+            if (b0 != 0xFF || (b1 & 0xE0) != 0xE0) {
+                return null;
+            }
+
+            int version = (b1 >> 3) & 0x03;
+            int layer = (b1 >> 1) & 0x03;
+            int bitrateIndex = (b2 >> 4) & 0x0F;
+            int sampleRateIndex = (b2 >> 2) & 0x03;
+            int padding = (b2 >> 1) & 0x01;
+            boolean mono = ((b3 >> 6) & 0x03) == 3;
+
+            if (version == 1 || layer == 0 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+                return null;
+            }
+
+            int table = version == MPEG_1 ? 3 - layer : (layer == LAYER_1 ? 3 : 4);
+            int bitrateKbps = BITRATES_KBPS[table][bitrateIndex];
+            int sampleRate = SAMPLE_RATES[version][sampleRateIndex];
+
+            int samplesPerFrame;
+            int length;
+            if (layer == LAYER_1) {
+                samplesPerFrame = 384;
+                length = (12 * bitrateKbps * 1000 / sampleRate + padding) * 4;
+            } else if (layer == LAYER_2 || version == MPEG_1) {
+                samplesPerFrame = 1152;
+                length = 144 * bitrateKbps * 1000 / sampleRate + padding;
+            } else {
+                samplesPerFrame = 576;
+                length = 72 * bitrateKbps * 1000 / sampleRate + padding;
+            }
+
+            int sideInfoSize = version == MPEG_1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+            return new FrameHeader(version, layer, bitrateKbps, sampleRate, length, samplesPerFrame, sideInfoSize);
+        }
+    }
+
+    /**
+     * Buffered reader that tracks the absolute position and supports looking ahead a few bytes.
+     */
+    private static final class Cursor {
+        private static final int BUFFER_SIZE = 8192;
+
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int pos;
+        private int limit;
+        private long consumed;
+
+        Cursor(InputStream in) {
+            this.in = in;
+        }
+
+        long position() {
+            return consumed + pos;
+        }
+
+        /**
+         * Makes up to {@code n} bytes available for peeking and returns how many are.
+         */
+        int ensure(int n) throws IOException {
+            if (limit - pos >= n) {
+                return n;
+            }
+            if (pos > 0) {
+                System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+                consumed += pos;
+                limit -= pos;
+                pos = 0;
+            }
+            while (limit < n && limit < buffer.length) {
+                int read = in.read(buffer, limit, buffer.length - limit);
+                if (read == -1) {
+                    break;
+                }
+                limit += read;
+            }
+            return Math.min(n, limit - pos);
+        }
+
+        int peek(int offset) {
+            return buffer[pos + offset] & 0xFF;
+        }
+
+        boolean startsWith(String prefix) {
+            return matches(0, prefix);
+        }
+
+        boolean matches(int offset, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (buffer[pos + offset + i] != value.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int int32At(int offset) {
+            return (int) int32(buffer, pos + offset);
+        }
+
+        /**
+         * @return the next {@code n} bytes, or {@code null} when the stream ends first
+         */
+        byte[] readFully(int n) throws IOException {
+            byte[] result = new byte[n];
+            int copied = 0;
+            while (copied < n) {
+                if (pos == limit && ensure(1) == 0) {
+                    return null;
+                }
+                int chunk = Math.min(n - copied, limit - pos);
+                System.arraycopy(buffer, pos, result, copied, chunk);
+                pos += chunk;
+                copied += chunk;
+            }
+            return result;
+        }
+
+        void skip(long n) throws IOException {
+            long remaining = n;
+            while (remaining > 0) {
+                if (pos == limit && ensure(1) == 0) {
+                    return;
+                }
+                int chunk = (int) Math.min(remaining, limit - pos);
+                pos += chunk;
+                remaining -= chunk;
+            }
+        }
+
+        /**
+         * Reads to the end of the stream and returns its last {@value Id3FrameMetadataReader#ID3V1_SIZE} bytes.
+         */
+        byte[] drain() throws IOException {
+            byte[] tail = new byte[ID3V1_SIZE];
+            int tailLength = 0;
+            while (ensure(1) > 0) {
+                int chunk = limit - pos;
+                if (chunk >= ID3V1_SIZE) {
+                    System.arraycopy(buffer, limit - ID3V1_SIZE, tail, 0, ID3V1_SIZE);
+                    tailLength = ID3V1_SIZE;
+                } else {
+                    int keep = Math.min(tailLength, ID3V1_SIZE - chunk);
+                    System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+                    System.arraycopy(buffer, pos, tail, keep, chunk);
+                    tailLength = keep + chunk;
+                }
+                pos = limit;
+            }
+            return tailLength == ID3V1_SIZE ? tail : Arrays.copyOf(tail, tailLength);
+        }
+    }
+}
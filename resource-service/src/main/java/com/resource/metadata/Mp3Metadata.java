@@ -0,0 +1,8 @@
+package com.resource.metadata;
+
+/**
+ * Tag and stream properties of an MP3, named after the Tika keys they replace
+ * ({@code dc:title}, {@code xmpDM:artist}, ...). The duration is in seconds, as Tika reports it.
+ */
+public record Mp3Metadata(String title, String artist, String album, String durationSeconds, String releaseDate) {
+}
@@ -0,0 +1,35 @@
+package com.resource.metadata;
+
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.mp3.Mp3Parser;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Full Tika parse of an MP3; reads every frame. Used when {@link Id3FrameMetadataReader} cannot handle a file.
+ */
+@Component
+public class TikaMp3MetadataReader {
+
+    private final Mp3Parser mp3Parser = new Mp3Parser();
+
+    public Mp3Metadata read(InputStream content) throws IOException, TikaException, SAXException {
+        Metadata metadata = new Metadata();
+        // lyrics and other body text are not used, so do not collect them (and do not hit a write limit)
+        mp3Parser.parse(content, new DefaultHandler(), metadata, new ParseContext());
+
+        return new Mp3Metadata(
+            metadata.get("dc:title"),
+            metadata.get("xmpDM:artist"),
+            metadata.get("xmpDM:album"),
+            metadata.get("xmpDM:duration"),
+            metadata.get("xmpDM:releaseDate")
+        );
+    }
+}
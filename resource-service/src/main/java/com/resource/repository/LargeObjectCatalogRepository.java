@@ -0,0 +1,48 @@
+package com.resource.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Queries over the large object catalog, for finding large objects that no blob row refers to.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LargeObjectCatalogRepository {
+
+    // the oid is stored as text in resource_blob.storage_key, which is indexed
+    private static final String SCAN = """
+        select m.oid, exists (select 1 from resource_blob b where b.storage_key = m.oid::text) as referenced
+        from pg_largeobject_metadata m
+        where m.oid > cast(? as oid)
+        order by m.oid
+        limit ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the next {@code limit} large objects after {@code afterOid}, in oid order, with whether a
+     * blob row refers to each. A large object and its blob row are committed together, so an
+     * unreferenced one seen here can never become referenced.
+     */
+    public List<LargeObjectRef> scan(long afterOid, int limit) {
+        return jdbcTemplate.query(SCAN,
+            (rs, rowNum) -> new LargeObjectRef(rs.getLong("oid"), rs.getBoolean("referenced")),
+            afterOid, limit);
+    }
+
+    /**
+     * Takes a transaction-scoped advisory lock if no other session holds it.
+     */
+    public boolean tryTransactionLock(long key) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, key));
+    }
+
+    public record LargeObjectRef(long oid, boolean referenced) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.resource.repository;
+
+import org.postgresql.PGConnection;
+import org.postgresql.largeobject.BlobInputStream;
+import org.postgresql.largeobject.BlobOutputStream;
+import org.postgresql.largeobject.LargeObject;
+import org.postgresql.largeobject.LargeObjectManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Streams resource content in and out of PostgreSQL large objects.
+ * <p>
+ * Large object descriptors are only valid inside a transaction, so every method must be called
+ * from a {@code @Transactional} service method; the connection bound to that transaction is reused.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LargeObjectRepository {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DataSource dataSource;
+
+    public long create() {
+        try {
+            return largeObjectManager().createLO(LargeObjectManager.READWRITE);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to create large object", e);
+        }
+    }
+
+    public OutputStream openOutputStream(long oid) {
+        try {
+            LargeObject largeObject = largeObjectManager().open(oid, LargeObjectManager.WRITE);
+            return new BlobOutputStream(largeObject, BUFFER_SIZE);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to open large object " + oid + " for writing", e);
+        }
+    }
+
+    public InputStream openInputStream(long oid) {
+        try {
+            LargeObject largeObject = largeObjectManager().open(oid, LargeObjectManager.READ);
+            return new BlobInputStream(largeObject, BUFFER_SIZE);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to open large object " + oid + " for reading", e);
+        }
+    }
+
+    public long size(long oid) {
+        try (LargeObject largeObject = largeObjectManager().open(oid, LargeObjectManager.READ)) {
+            return largeObject.size64();
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to read size of large object " + oid, e);
+        }
+    }
+
+    public void unlink(long oid) {
+        try {
+            largeObjectManager().delete(oid);
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to unlink large object " + oid, e);
+        }
+    }
+
+    /**
+     * Copies {@code length} bytes starting at {@code offset} to {@code out} in fixed-size chunks,
+     * so a range of any size is served without materializing it.
+     *
+     * @throws EOFException if the large object ends before the range does
+     */
+    public void copyTo(long oid, long offset, long length, OutputStream out) throws IOException {
+        try (LargeObject largeObject = largeObjectManager().open(oid, LargeObjectManager.READ)) {
+            largeObject.seek64(offset, LargeObject.SEEK_SET);
+
+            byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(length, 1))];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = largeObject.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read <= 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+            if (remaining > 0) {
+                throw new EOFException("Large object " + oid + " ended " + remaining + " bytes before the range");
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Failed to read large object " + oid, e);
+        }
+    }
+
+    private LargeObjectManager largeObjectManager() throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        if (connection.getAutoCommit()) {
+            throw new IllegalStateException("Large object access requires an active transaction");
+        }
+        return connection.unwrap(PGConnection.class).getLargeObjectAPI();
+    }
+}
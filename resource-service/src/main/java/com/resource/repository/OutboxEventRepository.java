@@ -0,0 +1,46 @@
+package com.resource.repository;
+
+import com.resource.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks due events without waiting on rows another dispatcher instance is already claiming.
+     */
+    @Query(value = """
+        select * from outbox_event
+        where status = 'PENDING' and next_attempt_at <= now()
+        order by id
+        limit :limit
+        for update skip locked
+        """, nativeQuery = true)
+    List<OutboxEvent> findDueForUpdate(@Param("limit") int limit);
+
+    /**
+     * Deletes pending creates for the resources that no dispatcher holds: a create that is locked by a
+     * claim in progress, or leased by one (its next attempt pushed into the future), may already be on
+     * its way to song-service and is left alone.
+     */
+    @Modifying
+    @Query(value = """
+        delete from outbox_event
+        where id in (
+            select id from outbox_event
+            where event_type = 'CREATE_SONG_METADATA' and status = 'PENDING' and next_attempt_at <= now()
+              and resource_id in :resourceIds
+            for update skip locked)
+        """, nativeQuery = true)
+    int deleteUnclaimedCreates(@Param("resourceIds") List<Integer> resourceIds);
+
+    @Query("select distinct e.resourceId from OutboxEvent e "
+        + "where e.eventType = com.resource.entity.OutboxEventType.CREATE_SONG_METADATA "
+        + "and e.status = com.resource.entity.OutboxEventStatus.PENDING and e.resourceId in :resourceIds")
+    List<Integer> findPendingCreateResourceIds(@Param("resourceIds") Collection<Integer> resourceIds);
+}
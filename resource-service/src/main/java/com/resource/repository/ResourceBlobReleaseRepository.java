@@ -0,0 +1,14 @@
+package com.resource.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ResourceBlobReleaseRepository {
+
+    /**
+     * Drops the given number of references per content hash and deletes the blob rows left unreferenced.
+     *
+     * @return the storage keys of the deleted blob rows, whose content can now be removed
+     */
+    List<String> releaseReferences(Map<String, Integer> referencesByHash);
+}
@@ -0,0 +1,47 @@
+package com.resource.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ResourceBlobReleaseRepositoryImpl implements ResourceBlobReleaseRepository {
+
+    // char(64)[] rather than text[] so the lookups use the primary key index
+    private static final String RELEASE_REFERENCES = """
+        update resource_blob b set ref_count = b.ref_count - r.refs
+        from unnest(cast(? as char(64)[]), cast(? as int[])) as r(content_hash, refs)
+        where b.content_hash = r.content_hash
+        """;
+
+    private static final String DELETE_UNREFERENCED = """
+        delete from resource_blob
+        where content_hash = any (cast(? as char(64)[])) and ref_count <= 0
+        returning storage_key
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<String> releaseReferences(Map<String, Integer> referencesByHash) {
+        Object[] hashes = referencesByHash.keySet().toArray();
+        Object[] refs = referencesByHash.values().toArray();
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(RELEASE_REFERENCES);
+            ps.setArray(1, connection.createArrayOf("varchar", hashes));
+            ps.setArray(2, connection.createArrayOf("integer", refs));
+            return ps;
+        });
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_UNREFERENCED);
+            ps.setArray(1, connection.createArrayOf("varchar", hashes));
+            return ps;
+        }, (rs, rowNum) -> rs.getString("storage_key"));
+    }
+}
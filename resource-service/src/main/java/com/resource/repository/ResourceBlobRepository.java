@@ -0,0 +1,42 @@
+package com.resource.repository;
+
+import com.resource.entity.ResourceBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ResourceBlobRepository extends JpaRepository<ResourceBlob, String>, ResourceBlobReleaseRepository {
+
+    boolean existsByStorageKey(String storageKey);
+
+    /**
+     * Registers one more reference to the content; the first upload of a hash inserts the row,
+     * concurrent or later ones only bump the counter and keep the stored key and metadata.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+        insert into resource_blob (content_hash, storage_key, content_length, ref_count,
+                                   name, artist, album, duration, year)
+        values (:#{#blob.contentHash}, :#{#blob.storageKey}, :#{#blob.contentLength}, 1,
+                :#{#blob.name}, :#{#blob.artist}, :#{#blob.album}, :#{#blob.duration}, :#{#blob.year})
+        on conflict (content_hash) do update set ref_count = resource_blob.ref_count + 1
+        """, nativeQuery = true)
+    void upsertReference(@Param("blob") ResourceBlob blob);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update ResourceBlob b set b.refCount = b.refCount + 1 where b.contentHash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    /**
+     * Stores metadata on a row that has none yet; the reference count is left alone.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+        update ResourceBlob b
+        set b.name = :#{#blob.name}, b.artist = :#{#blob.artist}, b.album = :#{#blob.album},
+            b.duration = :#{#blob.duration}, b.year = :#{#blob.year}
+        where b.contentHash = :#{#blob.contentHash} and b.duration is null
+        """)
+    void updateMissingMetadata(@Param("blob") ResourceBlob blob);
+}
@@ -0,0 +1,23 @@
+package com.resource.repository;
+
+import java.util.List;
+
+public interface ResourceDeleteRepository {
+
+    /**
+     * Deletes the given ids with one {@code delete ... returning} statement.
+     *
+     * @return the deleted rows, in no particular order
+     */
+    List<DeletedResource> deleteAllByIdReturning(int[] ids);
+
+    /**
+     * Deletes the lowest {@code limit} ids in {@code [fromId, toId]}.
+     *
+     * @return the deleted rows, in no particular order
+     */
+    List<DeletedResource> deleteRangeReturning(int fromId, int toId, int limit);
+
+    record DeletedResource(Integer id, String contentHash) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.resource.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ResourceDeleteRepositoryImpl implements ResourceDeleteRepository {
+
+    private static final String DELETE_BY_IDS = "delete from resource where id = any (?) returning id, content_hash";
+
+    private static final String DELETE_RANGE = """
+        delete from resource
+        where id in (select id from resource where id between ? and ? order by id limit ?)
+        returning id, content_hash
+        """;
+
+    private static final RowMapper<DeletedResource> ROW_MAPPER =
+        (rs, rowNum) -> new DeletedResource(rs.getInt("id"), rs.getString("content_hash"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<DeletedResource> deleteAllByIdReturning(int[] ids) {
+        // the driver binds an int[] as an integer array
+        return jdbcTemplate.query(DELETE_BY_IDS, ROW_MAPPER, (Object) ids);
+    }
+
+    @Override
+    public List<DeletedResource> deleteRangeReturning(int fromId, int toId, int limit) {
+        return jdbcTemplate.query(DELETE_RANGE, ROW_MAPPER, fromId, toId, limit);
+    }
+}
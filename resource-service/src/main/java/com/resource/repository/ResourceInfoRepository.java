@@ -0,0 +1,13 @@
+package com.resource.repository;
+
+import com.resource.dto.ResourceInfoDto;
+
+import java.util.List;
+
+public interface ResourceInfoRepository {
+
+    /**
+     * Loads the given ids with a single {@code = any(array)} query, in no particular order.
+     */
+    List<ResourceInfoDto> findInfoByIds(int[] ids);
+}
@@ -0,0 +1,36 @@
+package com.resource.repository;
+
+import com.resource.dto.ResourceInfoDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ResourceInfoRepositoryImpl implements ResourceInfoRepository {
+
+    private static final String FIND_INFO_BY_IDS = """
+        select id, content_type, content_length, content_hash, created_at
+        from resource
+        where id = any (?)
+        """;
+
+    private static final RowMapper<ResourceInfoDto> ROW_MAPPER = (rs, rowNum) -> new ResourceInfoDto(
+        rs.getInt("id"),
+        rs.getString("content_type"),
+        rs.getLong("content_length"),
+        rs.getString("content_hash"),
+        rs.getObject("created_at", OffsetDateTime.class).toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<ResourceInfoDto> findInfoByIds(int[] ids) {
+        // the driver binds an int[] as an integer array
+        return jdbcTemplate.query(FIND_INFO_BY_IDS, ROW_MAPPER, (Object) ids);
+    }
+}
@@ -0,0 +1,80 @@
+package com.resource.service;
+
+import com.resource.service.LargeObjectReclaimService.ReclaimResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background sweep for orphaned large objects when content is stored in the database. Each run
+ * handles one window of the catalog and then yields until the next interval, so the sweep never
+ * competes with request traffic for long; a full pass restarts from the lowest oid.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "resource.storage.type", havingValue = "database", matchIfMissing = true)
+public class LargeObjectReclaimJob {
+
+    private final LargeObjectReclaimService reclaimService;
+    private final boolean enabled;
+    private final int scanSize;
+    private final int maxUnlinks;
+    private final Counter reclaimedBytes;
+    private final Counter unlinkedObjects;
+
+    private long nextOid;
+
+    public LargeObjectReclaimJob(LargeObjectReclaimService reclaimService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${resource.storage.lo-gc.enabled:true}") boolean enabled,
+                                 @Value("${resource.storage.lo-gc.scan-size:1000}") int scanSize,
+                                 @Value("${resource.storage.lo-gc.max-unlinks:100}") int maxUnlinks) {
+        this.reclaimService = reclaimService;
+        this.enabled = enabled;
+        this.scanSize = scanSize;
+        this.maxUnlinks = maxUnlinks;
+        this.reclaimedBytes = Counter.builder("resource.storage.gc.reclaimed")
+            .description("Bytes of orphaned large objects unlinked")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        this.unlinkedObjects = Counter.builder("resource.storage.gc.unlinked")
+            .description("Orphaned large objects unlinked")
+            .baseUnit("objects")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${resource.storage.lo-gc.interval-ms:10000}",
+        fixedDelayString = "${resource.storage.lo-gc.interval-ms:10000}")
+    public void reclaim() {
+        if (!enabled) {
+            return;
+        }
+
+        ReclaimResult result;
+        try {
+            result = reclaimService.reclaimAfter(nextOid, scanSize, maxUnlinks);
+        } catch (RuntimeException e) {
+            log.warn("Large object reclaim after oid {} failed: {}", nextOid, e.getMessage());
+            return;
+        }
+        if (!result.ran()) {
+            return;
+        }
+
+        if (result.unlinked() > 0) {
+            reclaimedBytes.increment(result.bytes());
+            unlinkedObjects.increment(result.unlinked());
+            log.info("Unlinked {} orphaned large object(s), {} bytes", result.unlinked(), result.bytes());
+        }
+        if (result.nextOid() == 0 && nextOid != 0) {
+            log.debug("Large object reclaim finished a pass over the catalog");
+        }
+        nextOid = result.nextOid();
+    }
+}
@@ -0,0 +1,67 @@
+package com.resource.service;
+
+import com.resource.repository.LargeObjectCatalogRepository;
+import com.resource.repository.LargeObjectCatalogRepository.LargeObjectRef;
+import com.resource.repository.LargeObjectRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Unlinks large objects that no blob row refers to, such as content left behind by deletes that
+ * predate eager unlinking. Works through the catalog in oid order, one bounded window per call.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LargeObjectReclaimService {
+    // any constant unique to this job; serializes the sweep across resource-service instances
+    private static final long LOCK_KEY = 0x7265736f75726365L;
+
+    private final LargeObjectCatalogRepository largeObjectCatalogRepository;
+    private final LargeObjectRepository largeObjectRepository;
+
+    /**
+     * Scans up to {@code scanLimit} large objects after {@code afterOid} and unlinks at most
+     * {@code maxUnlinks} unreferenced ones, in one transaction.
+     */
+    @Transactional
+    public ReclaimResult reclaimAfter(long afterOid, int scanLimit, int maxUnlinks) {
+        if (!largeObjectCatalogRepository.tryTransactionLock(LOCK_KEY)) {
+            log.debug("Large object reclaim is running on another instance");
+            return new ReclaimResult(afterOid, 0, 0, false);
+        }
+
+        List<LargeObjectRef> window = largeObjectCatalogRepository.scan(afterOid, scanLimit);
+        long lastOid = afterOid;
+        int unlinked = 0;
+        long bytes = 0;
+        boolean throttled = false;
+        for (LargeObjectRef ref : window) {
+            if (!ref.referenced()) {
+                if (unlinked == maxUnlinks) {
+                    throttled = true;
+                    break;
+                }
+                bytes += largeObjectRepository.size(ref.oid());
+                largeObjectRepository.unlink(ref.oid());
+                unlinked++;
+            }
+            lastOid = ref.oid();
+        }
+
+        boolean exhausted = !throttled && window.size() < scanLimit;
+        return new ReclaimResult(exhausted ? 0 : lastOid, unlinked, bytes, true);
+    }
+
+    /**
+     * @param nextOid where the next call should continue; {@code 0} once the catalog has been fully scanned
+     */
+    public record ReclaimResult(long nextOid, int unlinked, long bytes, boolean ran) {
+    }
+}
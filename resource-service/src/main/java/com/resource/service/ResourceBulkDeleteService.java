@@ -0,0 +1,113 @@
+package com.resource.service;
+
+import com.resource.dto.ResourceBulkDeleteRequestDto;
+import com.resource.dto.ResourceDeleteProgressDto;
+import com.resource.exception.ValidationException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes resources in bulk, by id list or id range, in chunks that each commit on their own, so a
+ * large cleanup neither holds one long transaction nor needs thousands of requests.
+ * Every committed chunk is reported to the caller as it completes. If reporting fails (the client
+ * went away), the remaining chunks are left alone; chunks already reported stay deleted.
+ */
+@Slf4j
+@Service
+public class ResourceBulkDeleteService {
+
+    private final ResourceService resourceService;
+    private final int chunkSize;
+    private final int maxIds;
+
+    public ResourceBulkDeleteService(ResourceService resourceService,
+                                     @Value("${resource.delete.chunk-size:1000}") int chunkSize,
+                                     @Value("${resource.delete.max-ids:1000000}") int maxIds) {
+        this.resourceService = resourceService;
+        this.chunkSize = chunkSize;
+        this.maxIds = maxIds;
+    }
+
+    public void validate(ResourceBulkDeleteRequestDto request) {
+        if (request == null) {
+            throw new ValidationException("Delete request must not be empty");
+        }
+
+        boolean hasIds = request.ids() != null;
+        boolean hasRange = request.fromId() != null || request.toId() != null;
+        if (hasIds == hasRange) {
+            throw new ValidationException("Delete request must contain either 'ids' or 'fromId' and 'toId'");
+        }
+
+        if (hasIds) {
+            if (request.ids().isEmpty()) {
+                throw new ValidationException("Delete request must contain at least one ID");
+            }
+            if (request.ids().size() > maxIds) {
+                throw new ValidationException(
+                    String.format("Too many IDs: %d (max %d)", request.ids().size(), maxIds));
+            }
+            if (request.ids().stream().anyMatch(id -> id == null || id <= 0)) {
+                throw new ValidationException("Every ID must be a positive integer");
+            }
+            return;
+        }
+
+        if (request.fromId() == null || request.toId() == null) {
+            throw new ValidationException("An ID range needs both 'fromId' and 'toId'");
+        }
+        if (request.fromId() <= 0 || request.fromId() > request.toId()) {
+            throw new ValidationException(String.format(
+                "Invalid ID range %d-%d. Must be positive and ascending", request.fromId(), request.toId()));
+        }
+    }
+
+    /**
+     * Runs a validated request to completion, reporting each chunk and then a final {@code done} line.
+     *
+     * @return the number of resources deleted
+     */
+    public long delete(ResourceBulkDeleteRequestDto request, Consumer<ResourceDeleteProgressDto> progress) {
+        long deleted = request.ids() != null
+            ? deleteIds(request.ids().stream().mapToInt(Integer::intValue).distinct().toArray(), progress)
+            : deleteRange(request.fromId(), request.toId(), progress);
+
+        log.info("Bulk delete finished: {} resource(s) deleted", deleted);
+        progress.accept(new ResourceDeleteProgressDto(List.of(), deleted, true));
+        return deleted;
+    }
+
+    private long deleteIds(int[] ids, Consumer<ResourceDeleteProgressDto> progress) {
+        long deleted = 0;
+        for (int start = 0; start < ids.length; start += chunkSize) {
+            List<Integer> chunk = resourceService.deleteChunk(
+                Arrays.copyOfRange(ids, start, Math.min(start + chunkSize, ids.length)));
+            deleted += chunk.size();
+            progress.accept(new ResourceDeleteProgressDto(chunk, deleted, false));
+        }
+        return deleted;
+    }
+
+    private long deleteRange(int fromId, int toId, Consumer<ResourceDeleteProgressDto> progress) {
+        long deleted = 0;
+        int next = fromId;
+        List<Integer> chunk;
+        do {
+            chunk = resourceService.deleteRangeChunk(next, toId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            deleted += chunk.size();
+            progress.accept(new ResourceDeleteProgressDto(chunk, deleted, false));
+            next = chunk.get(chunk.size() - 1) + 1;
+        } while (chunk.size() == chunkSize && next > 0 && next <= toId);
+        return deleted;
+    }
+}
@@ -0,0 +1,237 @@
+package com.resource.service;
+
+import com.resource.dto.ResourceImportResultDto;
+import com.resource.exception.InvalidMp3Exception;
+import com.resource.exception.ValidationException;
+
+import io.micrometer.context.ContextExecutorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.PathResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports many MP3s per request. Every file is stored and parsed by {@link ResourceService#saveResource}
+ * in its own transaction on a bounded worker pool, so a catalogue import uses all cores and one broken
+ * file only fails its own entry in the report.
+ * <p>
+ * ZIP entries can only be read one after another, so the request thread spools each entry to a temp
+ * file and hands it to a worker; a semaphore caps the files in flight, which bounds disk use and makes
+ * the request thread wait for the workers instead of running ahead.
+ * <p>
+ * With virtual threads enabled each file gets its own virtual thread instead of a pool thread; the
+ * semaphore still caps the files in flight, and with them the database connections the import holds.
+ */
+@Slf4j
+@Service
+public class ResourceImportService {
+    private static final String MP3_CONTENT_TYPE = "audio/mpeg";
+    private static final String MP3_EXTENSION = ".mp3";
+    private static final String SERVER_ERROR = "An error occurred on the server";
+
+    private final ResourceService resourceService;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final int maxFiles;
+    private final long maxEntrySize;
+    private final Path spoolDir;
+
+    public ResourceImportService(ResourceService resourceService,
+                                 @Value("${resource.import.parallelism:0}") int parallelism,
+                                 @Value("${resource.import.max-files:1000}") int maxFiles,
+                                 @Value("${resource.import.max-entry-size:104857600}") long maxEntrySize,
+                                 @Value("${resource.import.spool-dir:${java.io.tmpdir}/resource-service/import}")
+                                 Path spoolDir,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads)
+        throws IOException {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.resourceService = resourceService;
+        // workers continue the import request's trace
+        this.executor = ContextExecutorService.wrap(virtualThreads
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("resource-import-", 0).factory())
+            : Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("resource-import-")));
+        this.inFlight = new Semaphore(threads * 2);
+        this.maxFiles = maxFiles;
+        this.maxEntrySize = maxEntrySize;
+        this.spoolDir = Files.createDirectories(spoolDir);
+    }
+
+    public List<ResourceImportResultDto> importFiles(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("Import must contain at least one file");
+        }
+        validateFileCount(files.size());
+
+        List<CompletableFuture<ResourceImportResultDto>> results = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            acquire();
+            results.add(submit(file.getOriginalFilename(), file.getContentType(), file, null));
+        }
+        return join(results);
+    }
+
+    public List<ResourceImportResultDto> importZip(InputStream archive) {
+        List<CompletableFuture<ResourceImportResultDto>> results = new ArrayList<>();
+        // the entry whose data the stream may still be reading, or null once one was spooled to its end
+        String name = null;
+
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+
+                name = entry.getName();
+                if (results.size() >= maxFiles) {
+                    // the files before this one are already being imported; report where the archive was cut
+                    results.add(CompletableFuture.completedFuture(
+                        failed(name, "Too many files in one import (max " + maxFiles + ")")));
+                    break;
+                }
+
+                if (!name.toLowerCase(Locale.ROOT).endsWith(MP3_EXTENSION)) {
+                    results.add(CompletableFuture.completedFuture(failed(name, "Not an MP3 file")));
+                    continue;
+                }
+
+                acquire();
+                Path spooled;
+                try {
+                    spooled = spool(zip, name);
+                } catch (ValidationException e) {
+                    inFlight.release();
+                    results.add(CompletableFuture.completedFuture(failed(name, e.getMessage())));
+                    continue;
+                } catch (RuntimeException | IOException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                results.add(submit(name, MP3_CONTENT_TYPE, new PathResource(spooled), spooled));
+                name = null;
+            }
+        } catch (IOException e) {
+            if (results.isEmpty()) {
+                throw new ValidationException("Invalid ZIP archive: " + e.getMessage());
+            }
+            // the files before the damage are still imported, so report their ids and where the archive broke
+            log.warn("Import archive is unreadable after {} entries: {}", results.size(), e.getMessage());
+            results.add(CompletableFuture.completedFuture(
+                failed(name, "Invalid ZIP archive: " + e.getMessage())));
+        }
+
+        if (results.isEmpty()) {
+            throw new ValidationException("Import must contain at least one file");
+        }
+        return join(results);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<ResourceImportResultDto> submit(String name, String contentType,
+                                                             InputStreamSource source, Path spooled) {
+        try {
+            return CompletableFuture.supplyAsync(() -> importOne(name, contentType, source), executor)
+                .whenComplete((result, error) -> {
+                    inFlight.release();
+                    deleteQuietly(spooled);
+                });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            deleteQuietly(spooled);
+            throw e;
+        }
+    }
+
+    private ResourceImportResultDto importOne(String name, String contentType, InputStreamSource source) {
+        try (InputStream content = source.getInputStream()) {
+            Integer id = resourceService.saveResource(contentType, null, content).get("id");
+            log.debug("Imported {} as resource ID {}", name, id);
+            return new ResourceImportResultDto(name, id, null);
+        } catch (InvalidMp3Exception | ValidationException e) {
+            log.warn("Rejected {} during import: {}", name, e.getMessage());
+            return failed(name, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to import {}", name, e);
+            return failed(name, SERVER_ERROR);
+        }
+    }
+
+    private Path spool(InputStream entry, String name) throws IOException {
+        Path file = Files.createTempFile(spoolDir, "entry-", ".mp3");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            int read;
+            while ((read = entry.read(buffer)) != -1) {
+                total += read;
+                if (total > maxEntrySize) {
+                    throw new ValidationException(
+                        "Entry " + name + " exceeds the maximum size of " + maxEntrySize + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private void validateFileCount(int count) {
+        if (count > maxFiles) {
+            throw new ValidationException("Too many files in one import (max " + maxFiles + ")");
+        }
+    }
+
+    private void acquire() {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an import worker", e);
+        }
+    }
+
+    private List<ResourceImportResultDto> join(List<CompletableFuture<ResourceImportResultDto>> results) {
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    private ResourceImportResultDto failed(String name, String errorMessage) {
+        return new ResourceImportResultDto(name, null, errorMessage);
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete spooled import file {}", file, e);
+        }
+    }
+}
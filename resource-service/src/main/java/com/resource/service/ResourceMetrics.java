@@ -0,0 +1,84 @@
+package com.resource.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Meters of the upload and download paths. Upload stages are observed separately, as a
+ * {@code resource.upload.stage} timer and a span each, because the body is streamed: reading the ID3
+ * header already writes the bytes it consumes to the blob, the rest is written while the remainder is
+ * drained, and only files without usable tags are parsed again by Tika.
+ */
+@Component
+public class ResourceMetrics {
+    private final ObservationRegistry observationRegistry;
+    private final Counter storedBytes;
+    private final Counter deduplicatedBytes;
+    private final Counter servedBytes;
+
+    public ResourceMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.storedBytes = uploadedCounter(meterRegistry, "stored");
+        this.deduplicatedBytes = uploadedCounter(meterRegistry, "deduplicated");
+        this.servedBytes = Counter.builder("resource.content.served")
+            .description("Bytes of resource content sent to clients")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    public <T> T observeStage(String stage, StageCall<T> call) throws IOException {
+        Observation observation = Observation.createNotStarted("resource.upload.stage", observationRegistry)
+            .contextualName("upload " + stage)
+            .lowCardinalityKeyValue("stage", stage)
+            .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return call.call();
+        } catch (IOException | RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    public void observeStage(String stage, StageRun run) throws IOException {
+        observeStage(stage, () -> {
+            run.run();
+            return null;
+        });
+    }
+
+    /**
+     * Counts an uploaded body; {@code stored} is false when its content was already stored and is shared.
+     */
+    public void recordUploaded(long bytes, boolean stored) {
+        (stored ? storedBytes : deduplicatedBytes).increment(bytes);
+    }
+
+    public void recordServed(long bytes) {
+        servedBytes.increment(bytes);
+    }
+
+    private static Counter uploadedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("resource.content.uploaded")
+            .description("Bytes of uploaded resource content")
+            .baseUnit("bytes")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface StageCall<T> {
+        T call() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StageRun {
+        void run() throws IOException;
+    }
+}
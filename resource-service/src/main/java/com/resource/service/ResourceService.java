@@ -1,27 +1,52 @@
 package com.resource.service;
 
 import com.resource.client.SongMetadataClient;
-import com.resource.dto.ResourceDto;
+import com.resource.dto.ResourceContentDto;
+import com.resource.dto.ResourceInfoDto;
+import com.resource.dto.ResourceLookupItemDto;
+import com.resource.dto.ResourceLookupStatus;
 import com.resource.dto.SongMetadataDto;
 import com.resource.entity.Resource;
+import com.resource.entity.ResourceBlob;
 import com.resource.exception.InvalidMp3Exception;
 import com.resource.exception.ResourceNotFoundException;
+import com.resource.exception.ValidationException;
+import com.resource.metadata.Id3FrameMetadataReader;
+import com.resource.metadata.Mp3Metadata;
+import com.resource.metadata.TikaMp3MetadataReader;
+import com.resource.repository.ResourceBlobRepository;
+import com.resource.repository.ResourceDeleteRepository.DeletedResource;
 import com.resource.repository.ResourceRepository;
+import com.resource.storage.BlobSink;
+import com.resource.storage.BlobStore;
+import com.resource.util.TeeInputStream;
 import com.resource.util.Utility;
 
-import org.apache.tika.Tika;
-import org.apache.tika.metadata.Metadata;
-import org.apache.tika.parser.ParseContext;
-import org.apache.tika.parser.mp3.Mp3Parser;
-import org.apache.tika.sax.BodyContentHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,115 +57,411 @@ import lombok.extern.slf4j.Slf4j;
 public class ResourceService {
     private static final String SUPPORTED_CONTENT_TYPE = "audio/mpeg";
     private static final int MAX_IDS_LENGTH = 200;
+    // enough for a few hundred ids, still well inside the default URL length limits
+    private static final int MAX_LOOKUP_IDS_LENGTH = 4000;
     private static final String METADATA_EXTRACTION_ERROR = "Failed to extract MP3 metadata";
+    private static final String CONTENT_STORE_ERROR = "Failed to store MP3 content";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final Pattern HASH_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
 
     private final ResourceRepository resourceRepository;
+    private final ResourceBlobRepository resourceBlobRepository;
+    private final BlobStore blobStore;
+    private final Id3FrameMetadataReader id3FrameMetadataReader;
+    private final TikaMp3MetadataReader tikaMp3MetadataReader;
+    private final SongMetadataOutboxService songMetadataOutboxService;
     private final SongMetadataClient songMetadataClient;
-
-
+    private final ResourceMetrics resourceMetrics;
+
+
+    /**
+     * Stores the uploaded MP3 in a single pass: the body is hashed and copied into a new blob while
+     * the parser reads it, so at most one buffer of the file is held in memory per upload.
+     * Content that is already stored under the same SHA-256 is shared instead of copied again; when the
+     * client announces the hash up front and it is known, the body is only verified, never parsed or stored.
+     * <p>
+     * The song-service call is recorded in the outbox and delivered after commit, so neither the
+     * connection nor the upload waits on song-service; the metadata is validated here instead. While
+     * song-service is unavailable the upload is still accepted, unless the degraded mode is {@code REJECT}.
+     */
     @Transactional
-    public Map<String, Integer> saveResource(ResourceDto request) {
-        validateMp3Request(request);
+    public Map<String, Integer> saveResource(String contentType, String contentHash, InputStream content) {
+        validateContentType(contentType);
+        songMetadataClient.checkAcceptingUploads();
+        String expectedHash = normalizeHash(contentHash);
+
+        ResourceBlob blob;
+        try {
+            InputStream body = requireContent(content);
+            ResourceBlob known = expectedHash == null
+                ? null
+                : resourceBlobRepository.findById(expectedHash).orElse(null);
+            blob = withMetadata(known != null ? reuseBlob(known, body) : storeBlob(body, expectedHash));
+        } catch (IOException e) {
+            log.error(CONTENT_STORE_ERROR, e);
+            throw new RuntimeException(CONTENT_STORE_ERROR, e);
+        }
 
-        Resource resource = toEntity(request);
+        Resource resource = new Resource();
+        resource.setContentHash(blob.getContentHash());
+        resource.setContentType(SUPPORTED_CONTENT_TYPE);
+        resource.setContentLength(blob.getContentLength());
+        resource.setCreatedAt(Instant.now());
         Resource savedResource = resourceRepository.saveAndFlush(resource);
 
-        log.info("Resource saved with ID: {}", savedResource.getId());
+        log.info("Resource saved with ID: {} ({} bytes, sha256 {})",
+            savedResource.getId(), blob.getContentLength(), blob.getContentHash());
 
-        Metadata metadata = extractMetadata(savedResource.getContent());
-        SongMetadataDto songMetadata = buildSongMetadataRequest(savedResource.getId(), metadata);
+        SongMetadataDto songMetadata = buildSongMetadataRequest(savedResource.getId(), blob);
+        validateSongMetadata(songMetadata);
 
         log.debug("Prepared SongMetadataCreateRequest: {}", songMetadata);
-        songMetadataClient.createSongMetadata(songMetadata);
-        log.info("Song metadata successfully created in song-service");
+        songMetadataOutboxService.enqueueCreate(songMetadata);
+        log.info("Song metadata creation queued for song-service");
         return Map.of("id", savedResource.getId());
     }
 
+    /**
+     * Returns the response headers of a resource from its own row; the blob is not read, so
+     * {@code HEAD} and conditional requests cost a single primary-key lookup.
+     */
     @Transactional(readOnly = true)
-    public ResourceDto getResource(String sid) {
+    public ResourceContentDto getResourceContent(String sid) {
         log.info("Fetching resource with ID: {}", sid);
 
         int id = Utility.parseAndValidateId(sid);
 
         Resource resource = resourceRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Resource with ID=" + id + " not found"));
+        log.debug("Resource found with byte length: {}", resource.getContentLength());
 
-        log.debug("Resource found with byte length: {}", resource.getContent().length);
+        String eTag = "\"" + resource.getContentHash() + "\"";
+        return new ResourceContentDto(id, resource.getContentHash(), resource.getContentType(),
+            resource.getContentLength(), resource.getCreatedAt(), eTag);
+    }
 
-        Tika tika = new Tika();
-        String detectedType = tika.detect(resource.getContent());
-        return new ResourceDto(resource.getContent(), detectedType);
+    /**
+     * Resolves a CSV of ids to resource info with one query, in request order, with a
+     * {@code NOT_FOUND} item for each unknown id. Content is not read.
+     */
+    @Transactional(readOnly = true)
+    public List<ResourceLookupItemDto> getResourceInfos(String ids) {
+        int[] idList = Utility.validateAndParse(ids, MAX_LOOKUP_IDS_LENGTH);
+
+        Map<Integer, ResourceInfoDto> found = resourceRepository.findInfoByIds(idList).stream()
+            .collect(Collectors.toMap(ResourceInfoDto::id, Function.identity()));
+        log.info("Fetched {} of {} requested resources", found.size(), idList.length);
+
+        return Arrays.stream(idList)
+            .mapToObj(id -> found.containsKey(id)
+                ? new ResourceLookupItemDto(id, ResourceLookupStatus.FOUND, found.get(id))
+                : new ResourceLookupItemDto(id, ResourceLookupStatus.NOT_FOUND, null))
+            .toList();
+    }
+
+    /**
+     * Streams the given byte range of the resource content; runs in its own transaction because
+     * it is invoked from the response-writing thread after the request handler has returned.
+     */
+    @Transactional(readOnly = true)
+    public void writeContent(ResourceContentDto content, long offset, long length, OutputStream out)
+        throws IOException {
+        ResourceBlob blob = getBlob(content);
+
+        log.debug("Streaming bytes {}-{} of resource ID: {}", offset, offset + length - 1, content.id());
+        blobStore.copyTo(blob.getStorageKey(), offset, length, out);
+        resourceMetrics.recordServed(length);
+    }
+
+    /**
+     * Returns the local file holding the resource content, to be sent by the container, or {@code null}
+     * when the blob store does not keep plain files and the content has to go through {@link #writeContent}.
+     */
+    @Transactional(readOnly = true)
+    public Path getContentFile(ResourceContentDto content, long length) {
+        Path file = blobStore.localFile(getBlob(content).getStorageKey());
+        if (file != null) {
+            log.debug("Sending {} bytes of resource ID: {} from {}", length, content.id(), file);
+            resourceMetrics.recordServed(length);
+        }
+        return file;
     }
 
     @Transactional
     public Map<String, List<Integer>> deleteByIds(String ids) {
-        List<Integer> idList = Utility.validateAndParse(ids, MAX_IDS_LENGTH);
+        int[] idList = Utility.validateAndParse(ids, MAX_IDS_LENGTH);
 
-        if (idList.isEmpty()) {
+        if (idList.length == 0) {
             return Map.of("ids", Collections.emptyList());
         }
 
-        List<Integer> existingIds = resourceRepository.findExistingIds(idList);
+        return Map.of("ids", deleteChunk(idList));
+    }
+
+    /**
+     * Deletes the given resources with one {@code delete ... returning}, releases their content and
+     * queues the song-service delete, all in one transaction.
+     *
+     * @return the ids that existed, in the given order
+     */
+    @Transactional
+    public List<Integer> deleteChunk(int[] ids) {
+        List<DeletedResource> deleted = resourceRepository.deleteAllByIdReturning(ids);
+        Set<Integer> deletedIds = deleted.stream().map(DeletedResource::id).collect(Collectors.toSet());
+        List<Integer> orderedIds = Arrays.stream(ids).filter(deletedIds::contains).boxed().toList();
+
+        releaseContent(deleted, orderedIds);
+        return orderedIds;
+    }
 
-        if (existingIds.isEmpty()) {
+    /**
+     * Deletes up to {@code limit} resources with ids in {@code [fromId, toId]}, lowest first, like
+     * {@link #deleteChunk}.
+     *
+     * @return the ids deleted, ascending
+     */
+    @Transactional
+    public List<Integer> deleteRangeChunk(int fromId, int toId, int limit) {
+        List<DeletedResource> deleted = resourceRepository.deleteRangeReturning(fromId, toId, limit);
+        List<Integer> orderedIds = deleted.stream().map(DeletedResource::id).sorted().toList();
+
+        releaseContent(deleted, orderedIds);
+        return orderedIds;
+    }
+
+    private void releaseContent(List<DeletedResource> deleted, List<Integer> deletedIds) {
+        if (deleted.isEmpty()) {
             log.warn("No matching resources found for deletion");
-            return Map.of("ids", Collections.emptyList());
+            return;
+        }
+        log.info("Deleted {} resource(s)", deleted.size());
+        log.debug("Deleted resources with IDs: {}", deletedIds);
+
+        Map<String, Integer> referencesByHash = deleted.stream()
+            .collect(Collectors.groupingBy(DeletedResource::contentHash, Collectors.summingInt(resource -> 1)));
+        List<String> unreferencedKeys = resourceBlobRepository.releaseReferences(referencesByHash);
+        if (!unreferencedKeys.isEmpty()) {
+            deleteBlobs(unreferencedKeys);
+            log.info("Released {} blob(s) without remaining references", unreferencedKeys.size());
+        }
+
+        songMetadataOutboxService.enqueueDelete(deletedIds);
+        log.info("Song metadata deletion queued for {} resource(s)", deletedIds.size());
+    }
+
+    private ResourceBlob storeBlob(InputStream body, String expectedHash) throws IOException {
+        MessageDigest digest = newDigest();
+        String storageKey;
+        String contentHash;
+        long size;
+        Mp3Metadata metadata;
+
+        try (BlobSink sink = blobStore.openSink();
+             TeeInputStream tee = new TeeInputStream(body, new DigestOutputStream(sink, digest))) {
+            metadata = resourceMetrics.observeStage("metadata-read", () -> id3FrameMetadataReader.read(tee));
+            resourceMetrics.observeStage("blob-write", tee::drain);
+            size = tee.getCount();
+            contentHash = HexFormat.of().formatHex(digest.digest());
+            verifyHash(expectedHash, contentHash);
+            storageKey = resourceMetrics.observeStage("blob-commit", sink::commit);
+        }
+
+        ResourceBlob candidate = new ResourceBlob();
+        candidate.setContentHash(contentHash);
+        candidate.setStorageKey(storageKey);
+        candidate.setContentLength(size);
+        if (metadata != null) {
+            applyMetadata(candidate, metadata);
+        } else if (resourceBlobRepository.existsById(contentHash)) {
+            // the stored row keeps its own metadata, and withMetadata parses the stored copy if it has none
+            log.debug("Content {} is already stored, skipping the full parse", contentHash);
+        } else {
+            log.debug("Falling back to full parse for content {}", contentHash);
+            applyMetadata(candidate, resourceMetrics.observeStage("metadata-fallback",
+                () -> extractMetadata(storageKey)));
+        }
+
+        resourceBlobRepository.upsertReference(candidate);
+        ResourceBlob stored = resourceBlobRepository.findById(contentHash).orElseThrow();
+
+        // keys are unique per commit, so a different key means another upload registered this content first
+        boolean storedNow = stored.getStorageKey().equals(storageKey);
+        if (storedNow) {
+            discardBlobOnRollback(storageKey);
+        } else {
+            // Same content was stored by an earlier upload: keep that copy and drop ours
+            log.info("Content {} is already stored, sharing existing blob", contentHash);
+            deleteBlobs(List.of(storageKey));
+        }
+        resourceMetrics.recordUploaded(size, storedNow);
+        return stored;
+    }
+
+    private ResourceBlob reuseBlob(ResourceBlob known, InputStream body) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream in = new DigestInputStream(body, digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        verifyHash(known.getContentHash(), HexFormat.of().formatHex(digest.digest()));
+
+        if (resourceBlobRepository.incrementRefCount(known.getContentHash()) == 0) {
+            throw new IllegalStateException("Content " + known.getContentHash() + " was removed during upload");
+        }
+
+        log.info("Content {} is already stored, skipping parse and store", known.getContentHash());
+        resourceMetrics.recordUploaded(known.getContentLength(), false);
+        return known;
+    }
+
+    private ResourceBlob getBlob(ResourceContentDto content) {
+        return resourceBlobRepository.findById(content.contentHash())
+            .orElseThrow(() -> new IllegalStateException("Content of resource ID=" + content.id() + " is missing"));
+    }
+
+    /**
+     * Blobs backfilled from resources uploaded before deduplication carry no metadata; it is parsed
+     * from the stored copy the first time that content is uploaded again.
+     */
+    private ResourceBlob withMetadata(ResourceBlob blob) throws IOException {
+        if (blob.getDuration() != null) {
+            return blob;
+        }
+
+        log.info("Content {} has no stored metadata, parsing the stored copy", blob.getContentHash());
+        applyMetadata(blob, resourceMetrics.observeStage("metadata-fallback",
+            () -> extractMetadata(blob.getStorageKey())));
+        resourceBlobRepository.updateMissingMetadata(blob);
+        return blob;
+    }
+
+    private void applyMetadata(ResourceBlob blob, Mp3Metadata metadata) {
+        blob.setName(metadata.title());
+        blob.setArtist(metadata.artist());
+        blob.setAlbum(metadata.album());
+        blob.setDuration(Utility.formatDuration(metadata.durationSeconds()));
+        blob.setYear(metadata.releaseDate());
+    }
+
+    private void verifyHash(String expectedHash, String actualHash) {
+        if (expectedHash != null && !expectedHash.equals(actualHash)) {
+            throw new ValidationException("Content does not match the announced SHA-256 " + expectedHash);
+        }
+    }
+
+    private String normalizeHash(String contentHash) {
+        if (contentHash == null || contentHash.isBlank()) {
+            return null;
         }
 
-        resourceRepository.deleteAllByIdInBatch(existingIds);
-        log.info("Deleted resources with IDs: {}", existingIds);
+        String hash = contentHash.trim().toLowerCase(Locale.ROOT);
+        if (!HASH_PATTERN.matcher(hash).matches()) {
+            throw new ValidationException("Invalid SHA-256 '" + contentHash + "'. Expected 64 hex characters.");
+        }
+        return hash;
+    }
 
-        Map<String, List<Integer>> deletedSongIds = songMetadataClient.deleteSongMetadata(existingIds);
-        log.info("Deleted corresponding Song metadata IDs: {}", deletedSongIds.values());
+    /**
+     * A blob written to a non-transactional store outlives a rolled back upload; remove it unless
+     * another upload has meanwhile registered the same content.
+     */
+    private void discardBlobOnRollback(String storageKey) {
+        if (blobStore.isTransactional()) {
+            return;
+        }
 
-        return Map.of("ids", existingIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK && !resourceBlobRepository.existsByStorageKey(storageKey)) {
+                    deleteBlob(storageKey);
+                }
+            }
+        });
     }
 
+    private void deleteBlobs(List<String> storageKeys) {
+        if (blobStore.isTransactional()) {
+            for (String key : storageKeys) {
+                try {
+                    blobStore.delete(key);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to delete blob " + key, e);
+                }
+            }
+            return;
+        }
+
+        // Only drop external blobs once the rows pointing at them are gone for good
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                storageKeys.forEach(ResourceService.this::deleteBlob);
+            }
+        });
+    }
 
-    private void validateMp3Request(ResourceDto request) {
-        if (request == null) {
-            throw new InvalidMp3Exception("Request cannot be null");
+    private void deleteBlob(String storageKey) {
+        try {
+            blobStore.delete(storageKey);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete blob {}", storageKey, e);
         }
+    }
 
-        if (!SUPPORTED_CONTENT_TYPE.equalsIgnoreCase(request.contentType())) {
+    private void validateContentType(String contentType) {
+        if (!SUPPORTED_CONTENT_TYPE.equalsIgnoreCase(contentType)) {
             throw new InvalidMp3Exception(
-                "Invalid content type: " + request.contentType() + ". Only MP3 files are allowed");
+                "Invalid content type: " + contentType + ". Only MP3 files are allowed");
+        }
+    }
+
+    private InputStream requireContent(InputStream content) throws IOException {
+        if (content == null) {
+            throw new InvalidMp3Exception("Empty or invalid MP3 file");
         }
 
-        if (request.data() == null || request.data().length == 0) {
+        PushbackInputStream pushback = new PushbackInputStream(content, 1);
+        int first = pushback.read();
+        if (first == -1) {
             throw new InvalidMp3Exception("Empty or invalid MP3 file");
         }
+        pushback.unread(first);
+        return pushback;
     }
 
-    private Metadata extractMetadata(byte[] content) {
-        BodyContentHandler handler = new BodyContentHandler();
-        Metadata metadata = new Metadata();
-        ParseContext parseContext = new ParseContext();
-        Mp3Parser mp3Parser = new Mp3Parser();
+    private void validateSongMetadata(SongMetadataDto songMetadata) {
+        Map<String, String> errors = SongMetadataDtoValidator.validate(songMetadata);
+        if (!errors.isEmpty()) {
+            errors.forEach((field, message) -> log.error("Invalid song metadata {}: {}", field, message));
+            throw new InvalidMp3Exception("Invalid Mp3");
+        }
+    }
 
-        try (InputStream inputStream = new ByteArrayInputStream(content)) {
-            mp3Parser.parse(inputStream, handler, metadata, parseContext);
-            return metadata;
+    private Mp3Metadata extractMetadata(String storageKey) {
+        try (InputStream content = blobStore.openStream(storageKey)) {
+            return tikaMp3MetadataReader.read(content);
         } catch (Exception e) {
             log.error(METADATA_EXTRACTION_ERROR, e);
             throw new RuntimeException(METADATA_EXTRACTION_ERROR, e);
         }
     }
 
-    private SongMetadataDto buildSongMetadataRequest(Integer resourceId, Metadata metadata) {
+    private SongMetadataDto buildSongMetadataRequest(Integer resourceId, ResourceBlob blob) {
         return new SongMetadataDto(
             resourceId,
-            metadata.get("dc:title"),
-            metadata.get("xmpDM:artist"),
-            metadata.get("xmpDM:album"),
-            Utility.formatDuration(metadata.get("xmpDM:duration")),
-            metadata.get("xmpDM:releaseDate")
+            blob.getName(),
+            blob.getArtist(),
+            blob.getAlbum(),
+            blob.getDuration(),
+            blob.getYear()
         );
     }
 
-    private Resource toEntity(ResourceDto request) {
-        Resource resource = new Resource();
-        resource.setContent(request.data());
-        return resource;
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " not available", e);
+        }
     }
 }
@@ -0,0 +1,223 @@
+package com.resource.service;
+
+import com.resource.client.SongMetadataClient;
+import com.resource.dto.SongMetadataBatchItemDto;
+import com.resource.dto.SongMetadataDto;
+import com.resource.entity.OutboxEvent;
+import com.resource.entity.OutboxEventType;
+import com.resource.exception.SongServiceUnavailableException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers outbox events to song-service outside of any request transaction.
+ * Creates claimed in the same batch are coalesced into one {@code POST /songs/batch} call (unless
+ * {@code song-service.outbox.batch-creates} is off) and deletes into {@code POST /songs/delete} calls of up
+ * to {@value #MAX_DELETE_BATCH_SIZE} ids; both calls are idempotent, so an event delivered twice after a lease expiry is harmless.
+ * <p>
+ * A delete is held back while a create for one of its resources is still pending, so it cannot overtake a
+ * create that another instance is delivering, or one waiting for a retry.
+ * <p>
+ * Nothing is claimed while the song-service circuit breaker is open, and events whose call the breaker
+ * turned away are released without using up an attempt.
+ * <p>
+ * Every delivery runs in a span that continues, or links to, the traces of the requests that recorded its
+ * events; see {@link SongMetadataOutboxTracing}.
+ */
+@Slf4j
+@Component
+public class SongMetadataOutboxDispatcher {
+    // song-service accepts up to 10000 ids per delete call; smaller calls keep its transactions short
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+    private final SongMetadataOutboxService outboxService;
+    private final SongMetadataClient songMetadataClient;
+    private final SongMetadataOutboxTracing outboxTracing;
+    private final int batchSize;
+    private final boolean batchCreates;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public SongMetadataOutboxDispatcher(SongMetadataOutboxService outboxService,
+                                        SongMetadataClient songMetadataClient,
+                                        SongMetadataOutboxTracing outboxTracing,
+                                        @Value("${song-service.outbox.batch-size:100}") int batchSize,
+                                        @Value("${song-service.outbox.batch-creates:true}") boolean batchCreates,
+                                        @Value("${song-service.outbox.max-attempts:10}") int maxAttempts,
+                                        @Value("${song-service.outbox.lease:PT1M}") Duration lease,
+                                        @Value("${song-service.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+                                        @Value("${song-service.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.outboxService = outboxService;
+        this.songMetadataClient = songMetadataClient;
+        this.outboxTracing = outboxTracing;
+        this.batchSize = batchSize;
+        this.batchCreates = batchCreates;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Scheduled(fixedDelayString = "${song-service.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<OutboxEvent> events;
+        do {
+            if (!songMetadataClient.isAvailable()) {
+                log.debug("song-service is unavailable, leaving the outbox for later");
+                return;
+            }
+            events = outboxService.claimDue(batchSize, lease);
+            if (events.isEmpty()) {
+                return;
+            }
+            log.debug("Dispatching {} outbox event(s)", events.size());
+
+            List<OutboxEvent> creates = new ArrayList<>();
+            List<OutboxEvent> deletes = new ArrayList<>();
+            for (OutboxEvent event : events) {
+                if (event.getEventType() == OutboxEventType.CREATE_SONG_METADATA) {
+                    creates.add(event);
+                } else {
+                    deletes.add(event);
+                }
+            }
+
+            if (batchCreates && creates.size() > 1) {
+                outboxTracing.deliver("outbox create-batch", creates, () -> deliverCreateBatch(creates));
+            } else {
+                creates.forEach(event ->
+                    outboxTracing.deliver("outbox create", List.of(event), () -> deliverCreate(event)));
+            }
+            deliverDeletes(deletes);
+        } while (events.size() == batchSize);
+    }
+
+    private void deliverCreate(OutboxEvent event) {
+        try {
+            songMetadataClient.createSongMetadata(outboxService.readCreate(event));
+            outboxService.complete(List.of(event));
+        } catch (SongServiceUnavailableException e) {
+            outboxService.release(List.of(event), initialBackoff);
+        } catch (RuntimeException e) {
+            log.warn("Song metadata create for resource {} failed: {}", event.getResourceId(), e.getMessage());
+            outboxService.reschedule(List.of(event), e.getMessage(), maxAttempts, initialBackoff, maxBackoff);
+        }
+    }
+
+    private void deliverCreateBatch(List<OutboxEvent> events) {
+        List<SongMetadataDto> songMetadata = events.stream().map(outboxService::readCreate).toList();
+        List<SongMetadataBatchItemDto> results;
+        try {
+            results = songMetadataClient.createSongMetadataBatch(songMetadata);
+        } catch (SongServiceUnavailableException e) {
+            outboxService.release(events, initialBackoff);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Song metadata batch create of {} item(s) failed: {}", events.size(), e.getMessage());
+            outboxService.reschedule(events, e.getMessage(), maxAttempts, initialBackoff, maxBackoff);
+            return;
+        }
+
+        if (results == null || results.size() != events.size()) {
+            String error = "Unexpected batch response size from song-service";
+            log.warn(error);
+            outboxService.reschedule(events, error, maxAttempts, initialBackoff, maxBackoff);
+            return;
+        }
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            SongMetadataBatchItemDto result = results.get(i);
+            if (result.isDelivered()) {
+                delivered.add(events.get(i));
+            } else {
+                // rejected items will not get better by retrying
+                outboxService.fail(List.of(events.get(i)), result.errorMessage() + " " + result.details());
+            }
+        }
+        if (!delivered.isEmpty()) {
+            outboxService.complete(delivered);
+        }
+        log.info("Created song metadata for {} of {} resource(s) in one batch", delivered.size(), events.size());
+    }
+
+    private void deliverDeletes(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<List<Integer>> idsPerEvent = new ArrayList<>(events.size());
+        Set<Integer> allIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            List<Integer> eventIds = outboxService.readDelete(event);
+            idsPerEvent.add(eventIds);
+            allIds.addAll(eventIds);
+        }
+        Set<Integer> pendingCreates = outboxService.findPendingCreates(allIds);
+
+        List<OutboxEvent> held = new ArrayList<>();
+        List<OutboxEvent> group = new ArrayList<>();
+        Set<Integer> ids = new LinkedHashSet<>();
+
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            List<Integer> eventIds = idsPerEvent.get(i);
+            if (eventIds.stream().anyMatch(pendingCreates::contains)) {
+                held.add(event);
+                continue;
+            }
+
+            if (!group.isEmpty() && ids.size() + eventIds.size() > MAX_DELETE_BATCH_SIZE) {
+                tracedDeleteGroup(group, ids);
+                group = new ArrayList<>();
+                ids = new LinkedHashSet<>();
+            }
+            group.add(event);
+            ids.addAll(eventIds);
+        }
+
+        if (!group.isEmpty()) {
+            tracedDeleteGroup(group, ids);
+        }
+        if (!held.isEmpty()) {
+            log.debug("Holding back {} song metadata delete(s) behind pending creates", held.size());
+            outboxService.release(held, initialBackoff);
+        }
+    }
+
+    private void tracedDeleteGroup(List<OutboxEvent> group, Set<Integer> ids) {
+        outboxTracing.deliver("outbox delete", group, () -> deliverDeleteGroup(group, ids));
+    }
+
+    private void deliverDeleteGroup(List<OutboxEvent> group, Set<Integer> ids) {
+        List<Integer> idList = List.copyOf(ids);
+        try {
+            // a single event larger than a batch still goes out in batch-sized calls
+            for (int start = 0; start < idList.size(); start += MAX_DELETE_BATCH_SIZE) {
+                songMetadataClient.deleteSongMetadata(
+                    idList.subList(start, Math.min(start + MAX_DELETE_BATCH_SIZE, idList.size())));
+            }
+            outboxService.complete(group);
+            log.info("Deleted song metadata for {} resource(s)", idList.size());
+        } catch (SongServiceUnavailableException e) {
+            // chunks already sent are idempotent to send again
+            outboxService.release(group, initialBackoff);
+        } catch (RuntimeException e) {
+            log.warn("Song metadata delete for {} resource(s) failed: {}", idList.size(), e.getMessage());
+            outboxService.reschedule(group, e.getMessage(), maxAttempts, initialBackoff, maxBackoff);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.resource.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resource.dto.SongMetadataDto;
+import com.resource.entity.OutboxEvent;
+import com.resource.entity.OutboxEventStatus;
+import com.resource.entity.OutboxEventType;
+import com.resource.repository.OutboxEventRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records song-service calls in the caller's transaction and manages their delivery state.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SongMetadataOutboxService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final SongMetadataOutboxTracing outboxTracing;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueCreate(SongMetadataDto songMetadata) {
+        save(OutboxEventType.CREATE_SONG_METADATA, songMetadata.id(), songMetadata);
+    }
+
+    /**
+     * Records the delete and drops creates for the same resources that no dispatcher has claimed. A create
+     * that is being delivered stays; the dispatcher holds the delete back until that create is resolved.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueDelete(List<Integer> resourceIds) {
+        int dropped = outboxEventRepository.deleteUnclaimedCreates(resourceIds);
+        if (dropped > 0) {
+            log.info("Dropped {} undelivered song metadata create(s) for deleted resources", dropped);
+        }
+        save(OutboxEventType.DELETE_SONG_METADATA, null, resourceIds);
+    }
+
+    /**
+     * Leases up to {@code limit} due events: their next attempt is pushed past the lease so a crashed
+     * dispatcher's events become due again, while the lock is released as soon as this method returns.
+     */
+    @Transactional
+    public List<OutboxEvent> claimDue(int limit, Duration lease) {
+        List<OutboxEvent> events = outboxEventRepository.findDueForUpdate(limit);
+        Instant leaseEnd = Instant.now().plus(lease);
+        for (OutboxEvent event : events) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setNextAttemptAt(leaseEnd);
+        }
+        return events;
+    }
+
+    /**
+     * Returns those of the given resources that still have a create waiting to be delivered, or being delivered.
+     */
+    @Transactional(readOnly = true)
+    public Set<Integer> findPendingCreates(Collection<Integer> resourceIds) {
+        return new HashSet<>(outboxEventRepository.findPendingCreateResourceIds(resourceIds));
+    }
+
+    @Transactional
+    public void complete(List<OutboxEvent> events) {
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+    }
+
+    /**
+     * Schedules another attempt with exponential backoff, or parks the events as failed once
+     * they have used up their attempts.
+     */
+    @Transactional
+    public void reschedule(List<OutboxEvent> events, String error, int maxAttempts,
+                           Duration initialBackoff, Duration maxBackoff) {
+        String lastError = truncate(error);
+
+        for (OutboxEvent event : outboxEventRepository.findAllById(events.stream().map(OutboxEvent::getId).toList())) {
+            event.setLastError(lastError);
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxEventStatus.FAILED);
+                log.error("Giving up on outbox event {} after {} attempts: {}", event.getId(), event.getAttempts(), error);
+                continue;
+            }
+
+            long factor = 1L << Math.min(event.getAttempts() - 1, 30);
+            Duration backoff = initialBackoff.multipliedBy(factor);
+            event.setNextAttemptAt(Instant.now().plus(backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff));
+        }
+    }
+
+    /**
+     * Returns leased events that were not sent: the attempt counted by the claim is taken back and the
+     * events become due again after {@code delay}.
+     */
+    @Transactional
+    public void release(List<OutboxEvent> events, Duration delay) {
+        Instant nextAttemptAt = Instant.now().plus(delay);
+        for (OutboxEvent event : outboxEventRepository.findAllById(events.stream().map(OutboxEvent::getId).toList())) {
+            event.setAttempts(event.getAttempts() - 1);
+            event.setNextAttemptAt(nextAttemptAt);
+        }
+    }
+
+    @Transactional
+    public void fail(List<OutboxEvent> events, String error) {
+        String lastError = truncate(error);
+        for (OutboxEvent event : outboxEventRepository.findAllById(events.stream().map(OutboxEvent::getId).toList())) {
+            event.setLastError(lastError);
+            event.setStatus(OutboxEventStatus.FAILED);
+            log.error("Outbox event {} rejected by song-service: {}", event.getId(), error);
+        }
+    }
+
+    public SongMetadataDto readCreate(OutboxEvent event) {
+        return read(event, new TypeReference<>() {});
+    }
+
+    public List<Integer> readDelete(OutboxEvent event) {
+        return read(event, new TypeReference<>() {});
+    }
+
+    private void save(OutboxEventType type, Integer resourceId, Object payload) {
+        Instant now = Instant.now();
+
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setResourceId(resourceId);
+        event.setPayload(write(payload));
+        event.setStatus(OutboxEventStatus.PENDING);
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+        event.setCreatedAt(now);
+        event.setTraceContext(outboxTracing.currentTraceContext());
+        outboxEventRepository.save(event);
+    }
+
+    private String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private String write(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+
+    private <T> T read(OutboxEvent event, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read payload of outbox event " + event.getId(), e);
+        }
+    }
+}
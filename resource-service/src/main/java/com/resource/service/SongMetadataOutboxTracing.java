@@ -0,0 +1,118 @@
+package com.resource.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resource.entity.OutboxEvent;
+
+import io.micrometer.tracing.Link;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Carries a trace across the outbox: an event stores the propagation headers of the request that
+ * recorded it, as the configured {@link Propagator} writes them ({@code traceparent}, {@code tracestate},
+ * baggage), and its delivery runs in a span that continues that trace. A delivery of events from several
+ * traces cannot have them all as parent, so its span links to each of them instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SongMetadataOutboxTracing {
+    private static final TypeReference<Map<String, String>> CARRIER_TYPE = new TypeReference<>() {
+    };
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The current trace context as a JSON object of propagation headers, or null outside a trace.
+     */
+    public String currentTraceContext() {
+        TraceContext context = tracer.currentTraceContext().context();
+        if (context == null) {
+            return null;
+        }
+        Map<String, String> carrier = new LinkedHashMap<>();
+        propagator.inject(context, carrier, Map::put);
+        try {
+            return objectMapper.writeValueAsString(carrier);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize trace context", e);
+        }
+    }
+
+    /**
+     * Runs the delivery of the given events in a span named {@code name}.
+     */
+    public void deliver(String name, List<OutboxEvent> events, Runnable delivery) {
+        List<Map<String, String>> origins = events.stream()
+            .map(OutboxEvent::getTraceContext)
+            .filter(Objects::nonNull)
+            .distinct()
+            .map(this::read)
+            .filter(Objects::nonNull)
+            .toList();
+
+        Span.Builder builder;
+        if (origins.size() == 1) {
+            builder = propagator.extract(origins.get(0), Map::get);
+        } else {
+            builder = tracer.spanBuilder();
+            origins.stream()
+                .map(this::remoteContext)
+                .filter(Objects::nonNull)
+                .forEach(origin -> builder.addLink(new Link(origin)));
+        }
+
+        Span span = builder
+            .name(name)
+            .tag("outbox.events", String.valueOf(events.size()))
+            .start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            delivery.run();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private Map<String, String> read(String traceContext) {
+        try {
+            return objectMapper.readValue(traceContext, CARRIER_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable outbox trace context {}", traceContext, e);
+            return null;
+        }
+    }
+
+    // the propagator only hands out a builder; the remote span is the parent of one started from it, which
+    // is dropped without being reported
+    private TraceContext remoteContext(Map<String, String> carrier) {
+        Span probe = propagator.extract(carrier, Map::get).start();
+        TraceContext child = probe.context();
+        probe.abandon();
+        if (child.parentId() == null) {
+            return null;
+        }
+        return tracer.traceContextBuilder()
+            .traceId(child.traceId())
+            .spanId(child.parentId())
+            .sampled(child.sampled())
+            .build();
+    }
+}
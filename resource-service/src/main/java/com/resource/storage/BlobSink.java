@@ -0,0 +1,15 @@
+package com.resource.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Write side of a {@link BlobStore}: bytes are streamed in and the blob is published by {@link #commit()}.
+ */
+public abstract class BlobSink extends OutputStream {
+
+    /**
+     * Finishes the blob and returns the key it is stored under. The sink must not be written after this.
+     */
+    public abstract String commit() throws IOException;
+}
@@ -0,0 +1,48 @@
+package com.resource.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Storage engine for resource content. The database keeps only the key returned by
+ * {@link BlobSink#commit()}; everything else about the bytes is up to the implementation.
+ */
+public interface BlobStore {
+
+    /**
+     * Opens a sink for a new blob. The blob becomes visible under its key once the sink is committed;
+     * closing an uncommitted sink discards what was written. Every commit yields a key of its own, even
+     * for bytes that are already stored, so deleting one blob never removes another upload's content.
+     */
+    BlobSink openSink() throws IOException;
+
+    InputStream openStream(String key) throws IOException;
+
+    /**
+     * Writes {@code length} bytes of the blob starting at {@code offset} to {@code out}.
+     *
+     * @throws java.io.EOFException if the blob ends before the range does
+     */
+    void copyTo(String key, long offset, long length, OutputStream out) throws IOException;
+
+    /**
+     * The local file holding the blob, for stores that keep blobs as plain files, so the web container
+     * can send it with {@code sendfile}; {@code null} when the content is only reachable through
+     * {@link #copyTo}.
+     */
+    default Path localFile(String key) {
+        return null;
+    }
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Whether writes and deletes take part in the surrounding database transaction.
+     * Non-transactional stores are cleaned up by the caller after commit or rollback.
+     */
+    default boolean isTransactional() {
+        return false;
+    }
+}
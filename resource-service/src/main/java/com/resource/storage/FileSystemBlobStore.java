@@ -0,0 +1,149 @@
+package com.resource.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Store on a local filesystem. Every committed blob gets a fresh random key, fanned out as
+ * {@code ab/cd/abcd...}, so a file is only ever owned by the {@code resource_blob} row that recorded
+ * its key; deduplication of identical content happens there, not here. Blobs are exposed as
+ * {@linkplain #localFile local files}, which Tomcat sends straight from the page cache to the socket;
+ * where sendfile is unavailable, {@link #copyTo} reads the requested range with positional reads into
+ * a buffer and writes that to the response.
+ */
+public class FileSystemBlobStore implements BlobStore {
+    private static final Pattern KEY_PATTERN =
+        Pattern.compile("^[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tempDir;
+
+    public FileSystemBlobStore(Path root) throws IOException {
+        this.root = root.toAbsolutePath();
+        this.tempDir = this.root.resolve("tmp");
+        Files.createDirectories(tempDir);
+    }
+
+    @Override
+    public BlobSink openSink() throws IOException {
+        Path tempFile = Files.createTempFile(tempDir, "upload-", ".part");
+        FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+
+        return new BlobSink() {
+            private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            private boolean committed;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    int chunk = Math.min(len, buffer.remaining());
+                    buffer.put(b, off, chunk);
+                    off += chunk;
+                    len -= chunk;
+                    if (!buffer.hasRemaining()) {
+                        flushBuffer();
+                    }
+                }
+            }
+
+            @Override
+            public String commit() throws IOException {
+                flushBuffer();
+                channel.force(false);
+                channel.close();
+
+                String key = UUID.randomUUID().toString();
+                Path target = resolve(key);
+                Files.createDirectories(target.getParent());
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                committed = true;
+                return key;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!committed) {
+                    channel.close();
+                    Files.deleteIfExists(tempFile);
+                }
+            }
+
+            private void flushBuffer() throws IOException {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+        };
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public void copyTo(String key, long offset, long length, OutputStream out) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            // the headers already promise length bytes, so fail before writing any of them
+            if (channel.size() < offset + length) {
+                throw new EOFException("Blob " + key + " has " + channel.size() + " bytes, range ends at "
+                    + (offset + length));
+            }
+
+            byte[] chunk = new byte[(int) Math.min(BUFFER_SIZE, length)];
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            long position = offset;
+            long remaining = length;
+            while (remaining > 0) {
+                buffer.clear().limit((int) Math.min(chunk.length, remaining));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Blob " + key + " ended at " + position + ", range ends at "
+                        + (offset + length));
+                }
+                out.write(chunk, 0, read);
+                position += read;
+                remaining -= read;
+            }
+        }
+    }
+
+    @Override
+    public Path localFile(String key) {
+        return resolve(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
@@ -0,0 +1,68 @@
+package com.resource.storage;
+
+import com.resource.repository.LargeObjectRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps content in PostgreSQL large objects; the key is the large object OID.
+ */
+@RequiredArgsConstructor
+public class LargeObjectBlobStore implements BlobStore {
+
+    private final LargeObjectRepository largeObjectRepository;
+
+    @Override
+    public BlobSink openSink() {
+        long oid = largeObjectRepository.create();
+        OutputStream out = largeObjectRepository.openOutputStream(oid);
+
+        return new BlobSink() {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public String commit() throws IOException {
+                out.close();
+                return Long.toString(oid);
+            }
+
+            @Override
+            public void close() throws IOException {
+                // an uncommitted large object is removed when the transaction rolls back
+                out.close();
+            }
+        };
+    }
+
+    @Override
+    public InputStream openStream(String key) {
+        return largeObjectRepository.openInputStream(Long.parseLong(key));
+    }
+
+    @Override
+    public void copyTo(String key, long offset, long length, OutputStream out) throws IOException {
+        largeObjectRepository.copyTo(Long.parseLong(key), offset, length, out);
+    }
+
+    @Override
+    public void delete(String key) {
+        largeObjectRepository.unlink(Long.parseLong(key));
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return true;
+    }
+}
@@ -0,0 +1,112 @@
+package com.resource.storage;
+
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Keeps content in an S3-compatible bucket (AWS S3, MinIO, ...). Uploads are spooled to a local
+ * temp file first because a single PUT needs the content length up front; reads use ranged GETs.
+ */
+public class S3BlobStore implements BlobStore {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final Path spoolDir;
+
+    public S3BlobStore(S3Client s3Client, String bucket, Path spoolDir) throws IOException {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.spoolDir = Files.createDirectories(spoolDir);
+    }
+
+    @Override
+    public BlobSink openSink() throws IOException {
+        Path spoolFile = Files.createTempFile(spoolDir, "upload-", ".part");
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(spoolFile), BUFFER_SIZE);
+
+        return new BlobSink() {
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public String commit() throws IOException {
+                out.close();
+                String key = UUID.randomUUID().toString();
+                try {
+                    s3Client.putObject(
+                        PutObjectRequest.builder().bucket(bucket).key(key).build(),
+                        RequestBody.fromFile(spoolFile));
+                } finally {
+                    close();
+                }
+                return key;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    out.close();
+                    Files.deleteIfExists(spoolFile);
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream openStream(String key) {
+        return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+
+    @Override
+    public void copyTo(String key, long offset, long length, OutputStream out) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+
+        GetObjectRequest request = GetObjectRequest.builder()
+            .bucket(bucket)
+            .key(key)
+            .range("bytes=" + offset + "-" + (offset + length - 1))
+            .build();
+
+        // S3 clamps a range that runs past the object, so a short object comes back as a shorter body
+        try (ResponseInputStream<GetObjectResponse> in = s3Client.getObject(request)) {
+            Long contentLength = in.response().contentLength();
+            if (contentLength == null || contentLength != length) {
+                throw new EOFException("Blob " + key + " returned " + contentLength + " bytes for a range of "
+                    + length);
+            }
+            in.transferTo(out);
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+    }
+}
@@ -0,0 +1,153 @@
+package com.resource.client;
+
+import com.resource.config.ResilienceConfig;
+import com.resource.dto.SongMetadataDto;
+import com.resource.exception.SongServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link SongMetadataClient} against {@link SongServiceFaultStub} through a circuit breaker that
+ * opens after four failed calls and lets one probe through after a short open period.
+ */
+class SongMetadataClientTest {
+    private static final int WINDOW = 4;
+    private static final Duration OPEN_DURATION = Duration.ofMillis(200);
+    private static final Duration DEADLINE = Duration.ofMillis(500);
+    private static final SongMetadataDto SONG = new SongMetadataDto(1, "Song", "Artist", "Album", "03:35", "2024");
+
+    private SongServiceFaultStub stub;
+    private CloseableHttpClient httpClient;
+    private CircuitBreaker circuitBreaker;
+    private SongMetadataClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new SongServiceFaultStub().start(0);
+        httpClient = HttpClients.createDefault();
+        circuitBreaker = new ResilienceConfig().songServiceCircuitBreaker(
+            50, 80, Duration.ofSeconds(3), WINDOW, WINDOW, OPEN_DURATION, 1, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.shutdown();
+        }
+        httpClient.close();
+        stub.close();
+    }
+
+    @Test
+    void opensAfterFailuresAndThenFailsFast() {
+        startClient(SongServiceDegradedMode.DEFER);
+        assertThat(client.isAvailable()).isTrue();
+
+        openCircuit();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(client.isAvailable()).isFalse();
+        assertThatThrownBy(() -> client.deleteSongMetadata(List.of(1)))
+            .isInstanceOf(SongServiceUnavailableException.class);
+        assertThat(stub.requestCount()).isEqualTo(WINDOW);
+    }
+
+    @Test
+    void closesWhenTheHalfOpenProbeSucceeds() throws InterruptedException {
+        startClient(SongServiceDegradedMode.DEFER);
+        openCircuit();
+        stub.setErrorRate(0);
+
+        awaitState(CircuitBreaker.State.HALF_OPEN);
+        client.createSongMetadata(SONG);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(client.isAvailable()).isTrue();
+    }
+
+    @Test
+    void reopensWhenTheHalfOpenProbeFails() throws InterruptedException {
+        startClient(SongServiceDegradedMode.DEFER);
+        openCircuit();
+
+        awaitState(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(() -> client.createSongMetadata(SONG)).isInstanceOf(RuntimeException.class);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(stub.requestCount()).isEqualTo(WINDOW + 1);
+    }
+
+    @Test
+    void countsCallsPastTheDeadlineAsFailures() {
+        startClient(SongServiceDegradedMode.DEFER);
+        stub.setHangRate(1);
+
+        for (int i = 0; i < WINDOW; i++) {
+            assertThatThrownBy(() -> client.createSongMetadata(SONG))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("did not complete within");
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void rejectModeRefusesUploadsOnlyWhileOpen() {
+        startClient(SongServiceDegradedMode.REJECT);
+        assertThatNoException().isThrownBy(client::checkAcceptingUploads);
+
+        openCircuit();
+
+        assertThatThrownBy(client::checkAcceptingUploads).isInstanceOf(SongServiceUnavailableException.class);
+    }
+
+    @Test
+    void deferModeKeepsAcceptingUploadsWhileOpen() {
+        startClient(SongServiceDegradedMode.DEFER);
+
+        openCircuit();
+
+        assertThatNoException().isThrownBy(client::checkAcceptingUploads);
+    }
+
+    private void startClient(SongServiceDegradedMode degradedMode) {
+        RestClient restClient = RestClient.builder()
+            .baseUrl(stub.uri().toString())
+            .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+            .build();
+        client = new SongMetadataClient(restClient, circuitBreaker, degradedMode, DEADLINE, Duration.ZERO,
+            new SimpleMeterRegistry());
+    }
+
+    private void openCircuit() {
+        stub.setErrorRate(1);
+        for (int i = 0; i < WINDOW; i++) {
+            assertThatThrownBy(() -> client.createSongMetadata(SONG))
+                .isInstanceOf(RuntimeException.class)
+                .isNotInstanceOf(SongServiceUnavailableException.class);
+        }
+    }
+
+    private void awaitState(CircuitBreaker.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + OPEN_DURATION.multipliedBy(10).toNanos();
+        while (circuitBreaker.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(state);
+    }
+}
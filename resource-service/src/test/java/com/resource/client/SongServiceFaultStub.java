@@ -0,0 +1,186 @@
+package com.resource.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in for song-service that answers the calls resource-service makes ({@code POST /songs},
+ * {@code /songs/batch} and {@code /songs/delete}) with injected latency, errors and hangs, for exercising
+ * the client's deadlines, circuit breaker and degraded mode. {@link SongMetadataClientTest} starts it on
+ * an ephemeral port; it can also be run on its own from the test classpath:
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.resource.client.SongServiceFaultStub \
+ *       -Dexec.args="--port=8082 --latency-ms=20 --error-rate=0.1 --hang-rate=0.01"
+ * </pre>
+ * Point resource-service at it without Eureka:
+ * <pre>
+ *   --eureka.client.enabled=false
+ *   --spring.cloud.discovery.client.simple.instances.song-service[0].uri=http://localhost:8082
+ * </pre>
+ * The faults can be changed while it runs, e.g. {@code curl -X POST 'localhost:8082/fault?error-rate=1'}
+ * to open the breaker and {@code error-rate=0} to let the half-open probe through.
+ */
+public class SongServiceFaultStub implements AutoCloseable {
+    private static final Duration HANG = Duration.ofMinutes(10);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long latencyMs;
+    private volatile double errorRate;
+    private volatile double hangRate;
+    private HttpServer server;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        SongServiceFaultStub stub = new SongServiceFaultStub();
+        stub.configure(options);
+        stub.start(Integer.parseInt(options.getOrDefault("port", "8082")));
+        System.out.printf("song-service fault stub on %s: %s%n", stub.uri(), stub.describe());
+    }
+
+    /**
+     * Starts serving on {@code port}, or on a free one when it is 0.
+     */
+    public SongServiceFaultStub start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/songs", this::handleSongs);
+        server.createContext("/fault", this::handleFault);
+        server.start();
+        return this;
+    }
+
+    public URI uri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    /**
+     * Song calls received so far, including those answered with an injected fault.
+     */
+    public int requestCount() {
+        return requests.get();
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setHangRate(double hangRate) {
+        this.hangRate = hangRate;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleSongs(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{}");
+                return;
+            }
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            if (!injectFault(exchange)) {
+                return;
+            }
+
+            switch (exchange.getRequestURI().getPath()) {
+                case "/songs" -> send(exchange, 201, objectMapper.writeValueAsString(Map.of("id", body.path("id").asInt())));
+                case "/songs/batch" -> {
+                    List<Map<String, Object>> results = new ArrayList<>();
+                    body.forEach(item -> results.add(Map.of("id", item.path("id").asInt(), "status", "CREATED")));
+                    send(exchange, 200, objectMapper.writeValueAsString(results));
+                }
+                case "/songs/delete" -> send(exchange, 200, objectMapper.writeValueAsString(Map.of("ids", body.path("ids"))));
+                default -> send(exchange, 404, "{}");
+            }
+        }
+    }
+
+    private void handleFault(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            configure(parseQuery(exchange.getRequestURI()));
+            send(exchange, 200, objectMapper.writeValueAsString(Map.of("fault", describe())));
+        }
+    }
+
+    /**
+     * Delays the exchange and decides its fate; returns false if an error or a hang was injected instead.
+     */
+    private boolean injectFault(HttpExchange exchange) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            if (random.nextDouble() < hangRate) {
+                Thread.sleep(HANG);
+                return false;
+            }
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        if (random.nextDouble() < errorRate) {
+            send(exchange, 503, "{\"errorMessage\":\"Injected fault\",\"errorCode\":\"503\"}");
+            return false;
+        }
+        return true;
+    }
+
+    private void configure(Map<String, String> options) {
+        latencyMs = Long.parseLong(options.getOrDefault("latency-ms", String.valueOf(latencyMs)));
+        errorRate = Double.parseDouble(options.getOrDefault("error-rate", String.valueOf(errorRate)));
+        hangRate = Double.parseDouble(options.getOrDefault("hang-rate", String.valueOf(hangRate)));
+    }
+
+    private String describe() {
+        return "latency-ms=" + latencyMs + " error-rate=" + errorRate + " hang-rate=" + hangRate;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int separator = option.indexOf('=');
+            if (separator > 0) {
+                options.put(option.substring(0, separator), option.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        String query = uri.getQuery();
+        return query == null ? Map.of() : parse(query.split("&"));
+    }
+}
@@ -0,0 +1,368 @@
+package com.resource.metadata;
+
+import com.resource.util.Utility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Runs {@link Id3FrameMetadataReader} and {@link TikaMp3MetadataReader} over the same synthetic files and
+ * expects the same tags and the same duration once formatted as {@code mm:ss}, and checks that every file
+ * the fast path does not handle comes back as {@code null}, with the stream read to the end, so the
+ * upload falls back to Tika.
+ * <p>
+ * The audio is MPEG-1 layer III at 128 kbps and 44.1 kHz. Files are {@value #FRAMES} frames long, about
+ * 30.5 s, so a frame more or less (Tika counts a Xing frame as audio, the header does not) or the CBR
+ * estimate never moves the duration across a second.
+ */
+class Id3FrameMetadataReaderTest {
+    private static final int FRAMES = 1167;
+    private static final String DURATION = "00:30";
+    // 417-byte frames, 418 when padded; a Xing or VBRI header sits 36 bytes in
+    private static final byte[] FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x00};
+    private static final double AVERAGE_FRAME_SIZE = 144.0 * 128_000 / 44_100;
+    private static final int SIDE_INFO_END = 36;
+    private static final double SECONDS_PER_FRAME = 1152.0 / 44_100;
+    private static final String LONG_TITLE = "A title long enough to need a second size byte, ".repeat(3) + "end";
+
+    private final Id3FrameMetadataReader reader = new Id3FrameMetadataReader();
+    private final TikaMp3MetadataReader tika = new TikaMp3MetadataReader();
+
+    @Test
+    void readsId3v22TextFrames() throws Exception {
+        byte[] mp3 = concat(
+            id3v2(2, 0,
+                frame(2, "TT2", text(0, "Song v2.2")),
+                frame(2, "TP1", text(1, "Artist v2.2")),
+                frame(2, "TAL", text(0, "Album v2.2")),
+                frame(2, "TYE", text(0, "1999"))),
+            audio(FRAMES));
+
+        assertMatchesTika(mp3, "Song v2.2", "Artist v2.2", "Album v2.2", "1999");
+    }
+
+    @Test
+    void readsId3v23FramesWithPlainSizes() throws Exception {
+        // a comment of more than 127 bytes is sized differently in v2.3 and v2.4, so a misread skips too far
+        byte[] mp3 = concat(
+            id3v2(3, 0,
+                frame(3, "COMM", comment(300)),
+                frame(3, "TIT2", text(0, LONG_TITLE)),
+                frame(3, "TPE1", text(1, "Art\u00edst v2.3")),
+                frame(3, "TALB", text(0, "Caf\u00e9 v2.3")),
+                frame(3, "TYER", text(0, "2003"))),
+            audio(FRAMES));
+
+        assertMatchesTika(mp3, LONG_TITLE, "Art\u00edst v2.3", "Caf\u00e9 v2.3", "2003");
+    }
+
+    @Test
+    void readsId3v24FramesWithSyncsafeSizesInEveryEncoding() throws Exception {
+        byte[] mp3 = concat(
+            id3v2(4, 0,
+                frame(4, "COMM", comment(300)),
+                frame(4, "TIT2", text(3, "S\u00f4ng v2.4 \u266b")),
+                frame(4, "TPE1", utf16WithBom(StandardCharsets.UTF_16BE, "\u00c4rtist v2.4")),
+                frame(4, "TALB", text(2, "Alb\u00fcm v2.4")),
+                frame(4, "TDRC", text(0, "2024"))),
+            audio(FRAMES));
+
+        assertMatchesTika(mp3, "S\u00f4ng v2.4 \u266b", "\u00c4rtist v2.4", "Alb\u00fcm v2.4", "2024");
+    }
+
+    @Test
+    void takesTheFirstOfSeveralValues() throws IOException {
+        byte[] mp3 = concat(
+            id3v2(4, 0,
+                frame(4, "TPE1", text(3, "First\u0000Second")),
+                frame(4, "TALB", utf16WithBom(StandardCharsets.UTF_16LE, "One\u0000Two"))),
+            audio(FRAMES));
+
+        Mp3Metadata metadata = readFast(mp3);
+
+        assertThat(metadata.artist()).isEqualTo("First");
+        assertThat(metadata.album()).isEqualTo("One");
+    }
+
+    @Test
+    void readsId3v1OnlyFiles() throws Exception {
+        byte[] mp3 = concat(audio(FRAMES), id3v1("Song v1", "Artist v1", "Album v1", "1987"));
+
+        assertMatchesTika(mp3, "Song v1", "Artist v1", "Album v1", "1987");
+    }
+
+    @Test
+    void prefersId3v2OverId3v1() throws Exception {
+        byte[] mp3 = concat(
+            id3v2(3, 0, frame(3, "TIT2", text(0, "Song v2.3"))),
+            audio(FRAMES),
+            id3v1("Song v1", "Artist v1", "Album v1", "1987"));
+
+        assertMatchesTika(mp3, "Song v2.3", "Artist v1", "Album v1", "1987");
+    }
+
+    @Test
+    void readsTheDurationOfXingInfoAndVbriFilesLikeTika() throws Exception {
+        byte[][] headers = {xing("Xing", FRAMES), xing("Info", FRAMES), vbri(FRAMES)};
+        for (byte[] header : headers) {
+            byte[] mp3 = concat(id3v2(3, 0, frame(3, "TIT2", text(0, "Song"))), header, audio(FRAMES));
+            assertMatchesTika(mp3, "Song", null, null, null);
+        }
+    }
+
+    @Test
+    void takesFrameCountsFromXingAndVbriHeadersOverTheSize() throws IOException {
+        // twenty frames of audio behind headers that claim ten thousand
+        double counted = 10_000 * SECONDS_PER_FRAME;
+        assertThat(duration(concat(xing("Xing", 10_000), audio(20)))).isCloseTo(counted, within(0.001));
+        assertThat(duration(concat(xing("Info", 10_000), audio(20)))).isCloseTo(counted, within(0.001));
+        assertThat(duration(concat(vbri(10_000), audio(20)))).isCloseTo(counted, within(0.001));
+    }
+
+    @Test
+    void estimatesCbrDurationFromTheSizeWithoutTheId3v1Tag() throws IOException {
+        byte[] audio = audio(FRAMES);
+        double estimate = audio.length * 8.0 / 128_000;
+
+        assertThat(duration(audio)).isCloseTo(estimate, within(0.001));
+        assertThat(duration(concat(audio, id3v1("Song", "Artist", "Album", "2024"))))
+            .isCloseTo(estimate, within(0.001));
+        // an Info header without the frame count flag says nothing about the length
+        byte[] noCount = xing("Info", 0, 0);
+        assertThat(duration(concat(noCount, audio)))
+            .isCloseTo((noCount.length + audio.length) * 8.0 / 128_000, within(0.001));
+    }
+
+    @Test
+    void skipsJunkBeforeTheFirstFrame() throws Exception {
+        byte[] junk = new byte[1000];
+        junk[10] = (byte) 0xFF;   // a lone sync byte not followed by a frame
+        byte[] mp3 = concat(id3v2(3, 0, frame(3, "TIT2", text(0, "Song"))), junk, audio(FRAMES));
+
+        assertMatchesTika(mp3, "Song", null, null, null);
+    }
+
+    @Test
+    void fallsBackOnUnsynchronisedTags() throws IOException {
+        byte[] mp3 = concat(id3v2(3, 0x80, frame(3, "TIT2", text(0, "Song"))), audio(FRAMES));
+
+        assertFallsBack(mp3);
+    }
+
+    @Test
+    void fallsBackOnCompressedId3v22Tags() throws IOException {
+        byte[] mp3 = concat(id3v2(2, 0x40, frame(2, "TT2", text(0, "Song"))), audio(FRAMES));
+
+        assertFallsBack(mp3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0x80, 0x40})   // compression, encryption
+    void fallsBackOnCompressedOrEncryptedId3v23Frames(int formatFlags) throws IOException {
+        byte[] mp3 = concat(id3v2(3, 0, frame(3, "TIT2", formatFlags, text(0, "Song"))), audio(FRAMES));
+
+        assertFallsBack(mp3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0x08, 0x04, 0x02})   // compression, encryption, unsynchronisation
+    void fallsBackOnCompressedEncryptedOrUnsynchronisedId3v24Frames(int formatFlags) throws IOException {
+        byte[] mp3 = concat(id3v2(4, 0, frame(4, "TIT2", formatFlags, text(0, "Song"))), audio(FRAMES));
+
+        assertFallsBack(mp3);
+    }
+
+    @Test
+    void fallsBackWhenTheStreamEndsInsideTheTag() throws IOException {
+        byte[] tag = id3v2(3, 0, frame(3, "TIT2", text(0, "A title that is cut short")));
+
+        assertFallsBack(Arrays.copyOf(tag, tag.length - 10));
+        assertFallsBack(Arrays.copyOf(tag, 14));
+    }
+
+    @Test
+    void fallsBackWithoutFrameSync() throws IOException {
+        assertFallsBack(new byte[0]);
+        assertFallsBack(new byte[100_000]);
+        assertFallsBack(concat(id3v2(3, 0, frame(3, "TIT2", text(0, "Song"))), new byte[10_000]));
+        assertFallsBack(id3v1("Song", "Artist", "Album", "2024"));
+    }
+
+    @Test
+    void fallsBackWhenTheFirstFrameIsTooFarIn() throws IOException {
+        assertFallsBack(concat(new byte[70_000], audio(FRAMES)));
+    }
+
+    private void assertMatchesTika(byte[] mp3, String title, String artist, String album, String year)
+        throws Exception {
+        Mp3Metadata fast = readFast(mp3);
+        Mp3Metadata full = tika.read(new ByteArrayInputStream(mp3));
+
+        assertThat(fast).isNotNull();
+        assertThat(fast.title()).isEqualTo(title).isEqualTo(full.title());
+        assertThat(fast.artist()).isEqualTo(artist).isEqualTo(full.artist());
+        assertThat(fast.album()).isEqualTo(album).isEqualTo(full.album());
+        assertThat(fast.releaseDate()).isEqualTo(year).isEqualTo(full.releaseDate());
+        assertThat(Utility.formatDuration(fast.durationSeconds()))
+            .isEqualTo(DURATION)
+            .isEqualTo(Utility.formatDuration(full.durationSeconds()));
+    }
+
+    private void assertFallsBack(byte[] mp3) throws IOException {
+        assertThat(readFast(mp3)).isNull();
+    }
+
+    private double duration(byte[] mp3) throws IOException {
+        return Double.parseDouble(readFast(mp3).durationSeconds());
+    }
+
+    // the upload is teed into storage while the reader runs, so it has to consume the whole stream
+    private Mp3Metadata readFast(byte[] mp3) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(mp3);
+        Mp3Metadata metadata = reader.read(in);
+        assertThat(in.available()).as("bytes left unread").isZero();
+        return metadata;
+    }
+
+    private static byte[] id3v2(int major, int flags, byte[]... frames) {
+        byte[] body = concat(frames);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[] {'I', 'D', '3', (byte) major, 0, (byte) flags});
+        out.writeBytes(syncsafe(body.length));
+        out.writeBytes(body);
+        return out.toByteArray();
+    }
+
+    private static byte[] frame(int major, String id, byte[] data) {
+        return frame(major, id, 0, data);
+    }
+
+    private static byte[] frame(int major, String id, int formatFlags, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(id.getBytes(StandardCharsets.US_ASCII));
+        switch (major) {
+            case 2 -> out.writeBytes(new byte[] {
+                (byte) (data.length >>> 16), (byte) (data.length >>> 8), (byte) data.length});
+            case 3 -> out.writeBytes(new byte[] {
+                (byte) (data.length >>> 24), (byte) (data.length >>> 16), (byte) (data.length >>> 8),
+                (byte) data.length, 0, (byte) formatFlags});
+            default -> {
+                out.writeBytes(syncsafe(data.length));
+                out.writeBytes(new byte[] {0, (byte) formatFlags});
+            }
+        }
+        out.writeBytes(data);
+        return out.toByteArray();
+    }
+
+    // encoding 1 is written little-endian with its byte order mark
+    private static byte[] text(int encoding, String value) {
+        return switch (encoding) {
+            case 0 -> concat(new byte[] {0}, value.getBytes(StandardCharsets.ISO_8859_1));
+            case 1 -> utf16WithBom(StandardCharsets.UTF_16LE, value);
+            case 2 -> concat(new byte[] {2}, value.getBytes(StandardCharsets.UTF_16BE));
+            default -> concat(new byte[] {3}, value.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static byte[] utf16WithBom(Charset charset, String value) {
+        byte[] bom = charset == StandardCharsets.UTF_16LE
+            ? new byte[] {1, (byte) 0xFF, (byte) 0xFE}
+            : new byte[] {1, (byte) 0xFE, (byte) 0xFF};
+        return concat(bom, value.getBytes(charset));
+    }
+
+    private static byte[] comment(int length) {
+        byte[] text = "x".repeat(length).getBytes(StandardCharsets.ISO_8859_1);
+        return concat(new byte[] {0, 'e', 'n', 'g', 0}, text);
+    }
+
+    private static byte[] id3v1(String title, String artist, String album, String year) {
+        byte[] tag = new byte[128];
+        tag[0] = 'T';
+        tag[1] = 'A';
+        tag[2] = 'G';
+        copyPadded(tag, 3, 30, title);
+        copyPadded(tag, 33, 30, artist);
+        copyPadded(tag, 63, 30, album);
+        copyPadded(tag, 93, 4, year);
+        tag[127] = (byte) 0xFF;
+        return tag;
+    }
+
+    private static void copyPadded(byte[] tag, int offset, int length, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(bytes, 0, tag, offset, Math.min(bytes.length, length));
+    }
+
+    // padded the way encoders do, so the stream averages exactly 128 kbps
+    private static byte[] audio(int frames) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < frames; i++) {
+            int size = (int) ((i + 1) * AVERAGE_FRAME_SIZE) - (int) (i * AVERAGE_FRAME_SIZE);
+            byte[] frame = new byte[size];
+            System.arraycopy(FRAME_HEADER, 0, frame, 0, FRAME_HEADER.length);
+            if (size > (int) AVERAGE_FRAME_SIZE) {
+                frame[2] |= 0x02;
+            }
+            out.writeBytes(frame);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] xing(String id, int frames) {
+        return xing(id, 0x01, frames);
+    }
+
+    private static byte[] xing(String id, int flags, int frames) {
+        byte[] frame = emptyFrame();
+        System.arraycopy(id.getBytes(StandardCharsets.US_ASCII), 0, frame, SIDE_INFO_END, 4);
+        putInt32(frame, SIDE_INFO_END + 4, flags);
+        putInt32(frame, SIDE_INFO_END + 8, frames);
+        return frame;
+    }
+
+    private static byte[] vbri(int frames) {
+        byte[] frame = emptyFrame();
+        System.arraycopy("VBRI".getBytes(StandardCharsets.US_ASCII), 0, frame, SIDE_INFO_END, 4);
+        putInt32(frame, SIDE_INFO_END + 14, frames);
+        return frame;
+    }
+
+    private static byte[] emptyFrame() {
+        byte[] frame = new byte[(int) AVERAGE_FRAME_SIZE];
+        System.arraycopy(FRAME_HEADER, 0, frame, 0, FRAME_HEADER.length);
+        return frame;
+    }
+
+    private static void putInt32(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 24);
+        b[offset + 1] = (byte) (value >>> 16);
+        b[offset + 2] = (byte) (value >>> 8);
+        b[offset + 3] = (byte) value;
+    }
+
+    private static byte[] syncsafe(int size) {
+        return new byte[] {
+            (byte) ((size >> 21) & 0x7F), (byte) ((size >> 14) & 0x7F), (byte) ((size >> 7) & 0x7F),
+            (byte) (size & 0x7F)};
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,131 @@
+package com.resource.service;
+
+import com.resource.dto.SongMetadataDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link SongMetadataDtoValidator} and Bean Validation over the same metadata and expects the same
+ * error map. Where a field breaks several constraints Bean Validation reports all of them in no particular
+ * order, so the expected message is the one of the {@code @NotNull}/{@code @NotBlank} constraint, which is
+ * declared first on every field.
+ */
+class SongMetadataDtoValidatorTest {
+    private static final String LONG_TEXT = "x".repeat(101);
+    private static final String BLANK_LONG_TEXT = " ".repeat(101);
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void acceptsValidMetadata() {
+        SongMetadataDto metadata = metadata(42, "Song", "Artist", "Album", "03:35", "2024");
+        assertThat(SongMetadataDtoValidator.validate(metadata)).isEmpty();
+        assertSameErrors(metadata);
+    }
+
+    @Test
+    void reportsEveryFieldOfEmptyMetadata() {
+        SongMetadataDto metadata = metadata(null, null, null, null, null, null);
+        assertThat(SongMetadataDtoValidator.validate(metadata)).containsExactly(
+            Map.entry("id", "Resource ID must not be null"),
+            Map.entry("name", "Name is required"),
+            Map.entry("artist", "Artist is required"),
+            Map.entry("album", "Album is required"),
+            Map.entry("duration", "Duration is required"),
+            Map.entry("year", "Year is required"));
+        assertSameErrors(metadata);
+    }
+
+    // what a tag reader can hand over: padded frames, NULs, non-ASCII digits
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", " ", "\u0000", "\u00a0", " a ", "a", "\u0101"})
+    void treatsBlankTextAsStringTrimDoes(String text) {
+        assertSameErrors(metadata(1, text, text, text, "03:35", "2024"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "00:00", "99:59", "03:60", "3:35", "003:35", "03:35\n", "\u0660\u0663:\u0663\u0665"})
+    void matchesDurationPattern(String duration) {
+        assertSameErrors(metadata(1, "Song", "Artist", "Album", duration, "2024"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "1899", "1900", "2099", "2100", "20245", "2024\u0000", "\u0662\u0660\u0662\u0664"})
+    void matchesYearPattern(String year) {
+        assertSameErrors(metadata(1, "Song", "Artist", "Album", "03:35", year));
+    }
+
+    @Test
+    void matchesBeanValidationOnRandomMetadata() {
+        Random random = new Random(20261018);
+        String[] texts = {null, "", " ", "\u00a0", "Song", LONG_TEXT, BLANK_LONG_TEXT, "x".repeat(100)};
+        String[] durations = {null, "", "03:35", "59:59", "03:60", "3:35", "03:35\n"};
+        String[] years = {null, "", " ", "1900", "2099", "1899", "2100", "2024 "};
+        for (int i = 0; i < 2_000; i++) {
+            assertSameErrors(metadata(
+                random.nextBoolean() ? random.nextInt() : null,
+                texts[random.nextInt(texts.length)],
+                texts[random.nextInt(texts.length)],
+                texts[random.nextInt(texts.length)],
+                durations[random.nextInt(durations.length)],
+                years[random.nextInt(years.length)]));
+        }
+    }
+
+    private static void assertSameErrors(SongMetadataDto metadata) {
+        assertThat(SongMetadataDtoValidator.validate(metadata))
+            .as("%s", metadata)
+            .isEqualTo(beanValidation(metadata));
+    }
+
+    private static Map<String, String> beanValidation(SongMetadataDto metadata) {
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<SongMetadataDto> violation : validator.validate(metadata)) {
+            String field = violation.getPropertyPath().toString();
+            if (isPresenceCheck(violation) || !errors.containsKey(field)) {
+                errors.put(field, violation.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private static boolean isPresenceCheck(ConstraintViolation<?> violation) {
+        Class<? extends Annotation> type = violation.getConstraintDescriptor().getAnnotation().annotationType();
+        return type == NotNull.class || type == NotBlank.class;
+    }
+
+    private static SongMetadataDto metadata(Integer id, String name, String artist, String album,
+                                            String duration, String year) {
+        return new SongMetadataDto(id, name, artist, album, duration, year);
+    }
+}
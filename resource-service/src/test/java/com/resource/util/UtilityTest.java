@@ -0,0 +1,209 @@
+package com.resource.util;
+
+import com.resource.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pins the id parsers to the regex-based implementation they replaced: same ids, same error messages,
+ * and the same message when an input breaks several rules at once. song-service carries the same parsers
+ * with its own messages; its {@code UtilityTest} only covers what differs there.
+ */
+class UtilityTest {
+    private static final int MAX_LENGTH = 200;
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "\t\n"})
+    void rejectsBlankCsv(String csv) {
+        assertCsvError(csv, "CSV string cannot be null or blank");
+    }
+
+    @Test
+    void rejectsTooLongCsvBeforeCheckingItsFormat() {
+        String csv = "x".repeat(MAX_LENGTH + 1);
+        assertCsvError(csv, "CSV string too long: 201 chars (max 200)");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "1,,2", ",1", "1,", ",", "1 ,2", " 1", "1\t", "+1", "-1", "1.0", "1;2",
+        "\u0661", "\uff11", "0,a", "2147483648,x"})
+    void rejectsBadFormatBeforeBadValues(String csv) {
+        assertCsvError(csv, "Invalid CSV format. Expected comma-separated positive integers.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "00", "1,0", "1,000,2", "0,2147483648"})
+    void rejectsZeroIds(String csv) {
+        String zero = Arrays.stream(csv.split(",")).filter(id -> Long.parseLong(id) == 0).findFirst().orElseThrow();
+        assertCsvError(csv, "Invalid ID '" + zero + "'. Must be greater than zero.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2147483648", "1,99999999999999999999", "2147483648,0", "0000000002147483648"})
+    void rejectsIdsAboveIntRange(String csv) {
+        String large = Arrays.stream(csv.split(",")).filter(id -> id.replaceFirst("^0+", "").length() >= 10)
+            .findFirst().orElseThrow();
+        assertCsvError(csv, "Invalid ID '" + large + "'. Value is too large for 32-bit integer.");
+    }
+
+    @Test
+    void keepsFirstOccurrenceOfDuplicates() {
+        assertThat(Utility.validateAndParse("3,1,3,2,1,007,7", MAX_LENGTH)).containsExactly(3, 1, 2, 7);
+        assertThat(Utility.validateAndParse("2147483647", MAX_LENGTH)).containsExactly(Integer.MAX_VALUE);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" 5", "5 ", "-5", "+5", "12a", "1,2", "\u0661"})
+    void rejectsMalformedId(String id) {
+        assertIdError(id, "Invalid ID '" + id + "'. Must be a positive integer.");
+    }
+
+    @Test
+    void rejectsOutOfRangeIds() {
+        assertIdError("0", "Invalid ID '0'. Must be greater than zero.");
+        assertIdError("000", "Invalid ID '000'. Must be greater than zero.");
+        assertIdError("2147483648", "Invalid ID '2147483648'. Value is too large for 32-bit integer.");
+        assertIdError("99999999999999999999", "Invalid ID '99999999999999999999'. Value is too large for 32-bit integer.");
+        assertThat(Utility.parseAndValidateId("0042")).isEqualTo(42);
+        assertThat(Utility.parseAndValidateId("2147483647")).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void matchesRegexImplementationOnRandomInput() {
+        Random random = new Random(20251018);
+        for (int i = 0; i < 100_000; i++) {
+            String csv = randomCsv(random);
+            assertThat(outcome(() -> List.of(boxed(Utility.validateAndParse(csv, MAX_LENGTH)))))
+                .as("validateAndParse(\"%s\")", csv)
+                .isEqualTo(outcome(() -> RegexUtility.validateAndParse(csv, MAX_LENGTH)));
+
+            String id = csv.length() > 24 ? csv.substring(0, 24) : csv;
+            assertThat(outcome(() -> Utility.parseAndValidateId(id)))
+                .as("parseAndValidateId(\"%s\")", id)
+                .isEqualTo(outcome(() -> RegexUtility.parseAndValidateId(id)));
+        }
+    }
+
+    private static void assertCsvError(String csv, String message) {
+        assertThatThrownBy(() -> Utility.validateAndParse(csv, MAX_LENGTH))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage(message);
+        assertThatThrownBy(() -> RegexUtility.validateAndParse(csv, MAX_LENGTH))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage(message);
+    }
+
+    private static void assertIdError(String id, String message) {
+        assertThatThrownBy(() -> Utility.parseAndValidateId(id))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage(message);
+        assertThatThrownBy(() -> RegexUtility.parseAndValidateId(id))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage(message);
+    }
+
+    // mostly well-formed lists, with zeros, duplicates, huge values and stray characters mixed in
+    private static String randomCsv(Random random) {
+        StringBuilder csv = new StringBuilder();
+        int ids = random.nextInt(8);
+        for (int i = 0; i < ids; i++) {
+            if (i > 0 || random.nextInt(20) == 0) {
+                csv.append(',');
+            }
+            switch (random.nextInt(10)) {
+                case 0 -> csv.append("0".repeat(1 + random.nextInt(3)));
+                case 1 -> csv.append(2_147_483_640L + random.nextInt(20));
+                case 2 -> csv.append(random.nextLong() & Long.MAX_VALUE);
+                case 3 -> csv.append("00").append(1 + random.nextInt(9));
+                case 4 -> csv.append(" -+a.\u0661".charAt(random.nextInt(6)));
+                default -> csv.append(1 + random.nextInt(50));
+            }
+        }
+        if (random.nextInt(20) == 0) {
+            csv.append(',');
+        }
+        return csv.toString();
+    }
+
+    private static Integer[] boxed(int[] ids) {
+        return Arrays.stream(ids).boxed().toArray(Integer[]::new);
+    }
+
+    private static Object outcome(ThrowingSupplier call) {
+        try {
+            return call.get();
+        } catch (ValidationException e) {
+            return "ValidationException: " + e.getMessage();
+        }
+    }
+
+    private interface ThrowingSupplier {
+        Object get();
+    }
+
+    /**
+     * The implementation before the single-pass parser, kept verbatim as the reference.
+     */
+    private static final class RegexUtility {
+        private static final Pattern ID_PATTERN = Pattern.compile("^[0-9]+$");
+        private static final Pattern CSV_PATTERN = Pattern.compile("^[0-9]+(?:,[0-9]+)*$");
+
+        static int parseAndValidateId(String id) {
+            if (id == null || !ID_PATTERN.matcher(id).matches()) {
+                throw new ValidationException(
+                    String.format("Invalid ID '%s'. Must be a positive integer.", id));
+            }
+
+            try {
+                int parsed = Integer.parseInt(id);
+                if (parsed <= 0) {
+                    throw new ValidationException(
+                        String.format("Invalid ID '%s'. Must be greater than zero.", id));
+                }
+                return parsed;
+            } catch (NumberFormatException e) {
+                throw new ValidationException(
+                    String.format("Invalid ID '%s'. Value is too large for 32-bit integer.", id));
+            }
+        }
+
+        static List<Integer> validateAndParse(String csv, int maxLength) {
+            if (csv == null || csv.isBlank()) {
+                throw new ValidationException("CSV string cannot be null or blank");
+            }
+
+            if (csv.length() > maxLength) {
+                throw new ValidationException(
+                    String.format("CSV string too long: %d chars (max %d)", csv.length(), maxLength));
+            }
+
+            if (!CSV_PATTERN.matcher(csv).matches()) {
+                throw new ValidationException("Invalid CSV format. Expected comma-separated positive integers.");
+            }
+
+            List<Integer> idList = Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .map(RegexUtility::parseAndValidateId)
+                .distinct()
+                .toList();
+
+            if (idList.isEmpty()) {
+                throw new ValidationException("CSV string must contain at least one valid ID");
+            }
+
+            return idList;
+        }
+    }
+}
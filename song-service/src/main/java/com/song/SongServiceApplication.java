@@ -2,10 +2,12 @@ package com.song;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 @SpringBootApplication
 @EnableDiscoveryClient
+@EnableCaching
 public class SongServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(SongServiceApplication.class,args);
@@ -0,0 +1,164 @@
+package com.song.cache;
+
+import com.song.dto.SongMetadataResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process read-through cache of song metadata by id, bounded by the Caffeine spec in
+ * {@code spring.cache.caffeine.spec}. Changed ids are evicted after the transaction commits.
+ * <p>
+ * A row read before a change commits must not be cached after that change's eviction has run. Single
+ * loads run inside Caffeine's atomic compute for the key, so an eviction waits for them and then removes
+ * what they stored. Bulk loads note the {@link #generation()} before querying, and their rows are dropped
+ * again if any eviction happened meanwhile.
+ * <p>
+ * In near-cache mode the eviction is also broadcast to the other song-service instances with
+ * Postgres {@code NOTIFY}, issued in the same transaction so it is only delivered if the change
+ * commits; {@link SongMetadataCacheInvalidationListener} applies it on the receiving side.
+ */
+@Slf4j
+@Component
+public class SongMetadataCache {
+    public static final String CACHE_NAME = "song-metadata";
+    static final String INVALIDATION_CHANNEL = "song_metadata_invalidation";
+
+    // NOTIFY payloads must stay below 8000 bytes
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+    private static final int MAX_ID_LENGTH = 11;
+
+    private final Cache cache;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean nearCache;
+    // bumped before every local eviction
+    private final AtomicLong generation = new AtomicLong();
+
+    public SongMetadataCache(CacheManager cacheManager, JdbcTemplate jdbcTemplate,
+                             @Value("${song-service.cache.near-cache.enabled:false}") boolean nearCache) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache " + CACHE_NAME + " is not configured");
+        this.jdbcTemplate = jdbcTemplate;
+        this.nearCache = nearCache;
+    }
+
+    public SongMetadataResponse get(int id) {
+        return cache.get(id, SongMetadataResponse.class);
+    }
+
+    /**
+     * Returns the cached song or loads and caches it; an exception thrown by the loader is rethrown
+     * and nothing is cached.
+     */
+    public SongMetadataResponse get(int id, Supplier<SongMetadataResponse> loader) {
+        long loadGeneration = generation.get();
+        boolean[] loaded = {false};
+        SongMetadataResponse song;
+        try {
+            song = cache.get(id, () -> {
+                loaded[0] = true;
+                return loader.get();
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        // a clear does not wait for loads of keys that were absent, unlike an eviction of the key
+        if (loaded[0] && generation.get() != loadGeneration) {
+            cache.evict(id);
+        }
+        return song;
+    }
+
+    /**
+     * The current eviction generation; read it before querying rows that are passed to {@link #putAll}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches songs read by a query that started at {@code loadGeneration}, unless an eviction happened
+     * since. An eviction either runs after the put and removes the rows itself, or bumped the generation
+     * before it, which the check after the put catches.
+     */
+    public void putAll(Collection<SongMetadataResponse> songs, long loadGeneration) {
+        if (songs.isEmpty() || generation.get() != loadGeneration) {
+            return;
+        }
+
+        songs.forEach(song -> cache.put(song.id(), song));
+        if (generation.get() != loadGeneration) {
+            songs.forEach(song -> cache.evict(song.id()));
+            log.debug("Dropped {} song metadata record(s) read before an eviction", songs.size());
+        }
+    }
+
+    /**
+     * Evicts the ids from this instance once the current transaction commits and, in near-cache
+     * mode, from every other instance as well.
+     */
+    public void invalidate(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<Integer> evicted = List.copyOf(ids);
+        if (nearCache) {
+            publish(evicted);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictLocally(evicted);
+            }
+        });
+    }
+
+    void evictLocally(Collection<Integer> ids) {
+        generation.incrementAndGet();
+        ids.forEach(cache::evict);
+        log.debug("Evicted song metadata from cache: {}", ids);
+    }
+
+    void clearLocally() {
+        generation.incrementAndGet();
+        cache.clear();
+        log.debug("Cleared song metadata cache");
+    }
+
+    private void publish(List<Integer> ids) {
+        StringBuilder payload = new StringBuilder();
+        for (Integer id : ids) {
+            if (payload.length() + MAX_ID_LENGTH + 1 > MAX_PAYLOAD_LENGTH) {
+                sendNotification(payload.toString());
+                payload.setLength(0);
+            }
+            if (!payload.isEmpty()) {
+                payload.append(',');
+            }
+            payload.append(id);
+        }
+        sendNotification(payload.toString());
+    }
+
+    private void sendNotification(String payload) {
+        jdbcTemplate.query("select pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, INVALIDATION_CHANNEL, payload);
+    }
+}
@@ -0,0 +1,128 @@
+package com.song.cache;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Near-cache mode: keeps one connection listening on the invalidation channel and evicts the ids
+ * other instances (and this one) publish. The whole cache is cleared whenever the listener
+ * (re)connects, because notifications sent while it was not listening are lost.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "song-service.cache.near-cache.enabled", havingValue = "true")
+public class SongMetadataCacheInvalidationListener {
+
+    private final DataSource dataSource;
+    private final SongMetadataCache songMetadataCache;
+    private final Duration pollTimeout;
+    private final Duration retryDelay;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public SongMetadataCacheInvalidationListener(DataSource dataSource, SongMetadataCache songMetadataCache,
+                                                 @Value("${song-service.cache.near-cache.poll-timeout:PT5S}")
+                                                 Duration pollTimeout,
+                                                 @Value("${song-service.cache.near-cache.retry-delay:PT5S}")
+                                                 Duration retryDelay) {
+        this.dataSource = dataSource;
+        this.songMetadataCache = songMetadataCache;
+        this.pollTimeout = pollTimeout;
+        this.retryDelay = retryDelay;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform()
+            .name("song-cache-invalidation")
+            .daemon()
+            .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try {
+                    receive(connection);
+                } finally {
+                    // the connection goes back to the pool; do not leave it subscribed
+                    unlisten(connection);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Song metadata invalidation listener failed, reconnecting in {}", retryDelay, e);
+                pause();
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + SongMetadataCache.INVALIDATION_CHANNEL);
+        }
+        songMetadataCache.clearLocally();
+        log.info("Listening for song metadata invalidations");
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                songMetadataCache.evictLocally(parseIds(notification.getParameter()));
+            }
+        }
+    }
+
+    private void unlisten(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UNLISTEN *");
+        } catch (SQLException e) {
+            log.debug("Failed to unsubscribe invalidation listener connection", e);
+        }
+    }
+
+    private List<Integer> parseIds(String payload) {
+        return Arrays.stream(payload.split(","))
+            .map(Integer::valueOf)
+            .toList();
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.song.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class WebConfig {
+
+    /**
+     * ETags from a hash of the response body, so caches in front can revalidate song metadata and get a
+     * {@code 304} instead of the body. Handlers that stream opt out with
+     * {@link ShallowEtagHeaderFilter#disableContentCaching}, as the filter would buffer their output.
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+            new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/songs/*");
+        return registration;
+    }
+}
@@ -1,13 +1,28 @@
 package com.song.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.song.dto.SongMetadataBatchItemResponse;
+import com.song.dto.SongMetadataDeleteRequest;
+import com.song.dto.SongMetadataFilter;
+import com.song.dto.SongMetadataLookupItemResponse;
 import com.song.dto.SongMetadataRequest;
 import com.song.dto.SongMetadataResponse;
 import com.song.service.SongMetadataService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +32,11 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class SongMetadataController {
 
+    // songs are also created and deleted by resource-service, past any cache in front, so reads stay short-lived
+    private static final CacheControl READ_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(5));
+
     private final SongMetadataService songMetadataService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Map<String, Integer>> createSongMetadata(@RequestBody SongMetadataRequest songMetadataRequest) {
@@ -25,13 +44,88 @@ public class SongMetadataController {
        return ResponseEntity.ok(songMetadataService.createSong(songMetadataRequest));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<SongMetadataBatchItemResponse>> createSongMetadataBatch(
+        @RequestBody List<SongMetadataRequest> songMetadataRequests) {
+        log.info("SongCreateBatchRequest: {} item(s)", songMetadataRequests == null ? 0 : songMetadataRequests.size());
+        return ResponseEntity.ok(songMetadataService.createSongs(songMetadataRequests));
+    }
+
+    /**
+     * Lists song metadata in id order, one keyset page at a time: pass the returned {@code nextCursor}
+     * as {@code after} to get the next page. Rows are written to the response as they are read.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listSongMetadata(
+        @RequestParam(value = "artist", required = false) String artist,
+        @RequestParam(value = "album", required = false) String album,
+        @RequestParam(value = "year", required = false) String year,
+        @RequestParam(value = "name", required = false) String namePrefix,
+        @RequestParam(value = "after", required = false) String after,
+        @RequestParam(value = "limit", required = false) String limit,
+        HttpServletRequest request) {
+        SongMetadataFilter filter = songMetadataService.createFilter(artist, album, year, namePrefix, after, limit);
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        return ResponseEntity.ok()
+            .cacheControl(READ_CACHE_CONTROL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> writePage(filter, out));
+    }
+
+    @GetMapping(params = "id")
+    public ResponseEntity<List<SongMetadataLookupItemResponse>> getSongMetadataByIds(@RequestParam("id") String csvIds) {
+        return ResponseEntity.ok()
+            .cacheControl(READ_CACHE_CONTROL)
+            .body(songMetadataService.getSongMetadataByIds(csvIds));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<SongMetadataResponse>> searchSongMetadata(
+        @RequestParam(value = "q", required = false) String query,
+        @RequestParam(value = "limit", required = false) String limit) {
+        return ResponseEntity.ok()
+            .cacheControl(READ_CACHE_CONTROL)
+            .body(songMetadataService.searchSongs(query, limit));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SongMetadataResponse> getSongMetadata(@PathVariable("id") String id) {
-        return ResponseEntity.ok(songMetadataService.getSongMetadata(id));
+        return ResponseEntity.ok()
+            .cacheControl(READ_CACHE_CONTROL)
+            .body(songMetadataService.getSongMetadata(id));
     }
 
     @DeleteMapping
     public ResponseEntity<Map<String, List<Integer>>> deleteSongMetadata(@RequestParam("id") String csvIds) {
         return ResponseEntity.ok(songMetadataService.deleteByIds(csvIds));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/delete")
+    public ResponseEntity<Map<String, List<Integer>>> deleteSongMetadataBatch(
+        @RequestBody SongMetadataDeleteRequest deleteRequest) {
+        log.info("SongDeleteBatchRequest: {} id(s)", deleteRequest.ids() == null ? 0 : deleteRequest.ids().size());
+        return ResponseEntity.ok(songMetadataService.deleteByIds(deleteRequest));
+    }
+
+    private void writePage(SongMetadataFilter filter, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("songs");
+            Integer nextCursor;
+            try {
+                nextCursor = songMetadataService.streamSongs(filter, song -> {
+                    try {
+                        json.writeObject(song);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+            json.writeObjectField("nextCursor", nextCursor);
+            json.writeEndObject();
+        }
+    }
+}
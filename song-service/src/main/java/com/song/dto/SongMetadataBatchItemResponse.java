@@ -0,0 +1,7 @@
+package com.song.dto;
+
+import java.util.Map;
+
+public record SongMetadataBatchItemResponse(Integer id, SongMetadataBatchItemStatus status, String errorMessage,
+                                            Map<String, String> details) {
+}
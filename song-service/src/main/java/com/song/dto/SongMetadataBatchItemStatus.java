@@ -0,0 +1,7 @@
+package com.song.dto;
+
+public enum SongMetadataBatchItemStatus {
+    CREATED,
+    ALREADY_EXISTS,
+    VALIDATION_ERROR
+}
@@ -0,0 +1,6 @@
+package com.song.dto;
+
+import java.util.List;
+
+public record SongMetadataDeleteRequest(List<Integer> ids) {
+}
@@ -0,0 +1,8 @@
+package com.song.dto;
+
+/**
+ * Filters and keyset position for listing song metadata; {@code null} filters are not applied.
+ * Results are ordered by id and start after {@code afterId}.
+ */
+public record SongMetadataFilter(String artist, String album, String year, String namePrefix, int afterId, int limit) {
+}
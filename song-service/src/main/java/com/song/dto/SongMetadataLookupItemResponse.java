@@ -0,0 +1,4 @@
+package com.song.dto;
+
+public record SongMetadataLookupItemResponse(Integer id, SongMetadataLookupStatus status, SongMetadataResponse metadata) {
+}
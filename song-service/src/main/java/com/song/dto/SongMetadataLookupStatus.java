@@ -0,0 +1,6 @@
+package com.song.dto;
+
+public enum SongMetadataLookupStatus {
+    FOUND,
+    NOT_FOUND
+}
@@ -0,0 +1,22 @@
+package com.song.repository;
+
+import com.song.entity.SongMetadata;
+
+import java.util.List;
+
+public interface SongMetadataBatchRepository {
+
+    /**
+     * Inserts all rows in one JDBC batch, skipping ids that already exist.
+     *
+     * @return per row, whether it was inserted
+     */
+    boolean[] insertIgnoringExisting(List<SongMetadata> songs);
+
+    /**
+     * Deletes the given ids with one {@code delete ... returning} statement.
+     *
+     * @return the ids that existed and were deleted, in no particular order
+     */
+    List<Integer> deleteAllByIdReturningIds(int[] ids);
+}
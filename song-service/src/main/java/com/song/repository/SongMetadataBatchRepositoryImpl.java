@@ -0,0 +1,58 @@
+package com.song.repository;
+
+import com.song.entity.SongMetadata;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class SongMetadataBatchRepositoryImpl implements SongMetadataBatchRepository {
+
+    private static final String INSERT_IGNORING_EXISTING = """
+        insert into song_metadata (id, name, artist, album, duration, year)
+        values (?, ?, ?, ?, ?, ?)
+        on conflict (id) do nothing
+        """;
+
+    private static final String DELETE_RETURNING_IDS = "delete from song_metadata where id = any (?) returning id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean[] insertIgnoringExisting(List<SongMetadata> songs) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_IGNORING_EXISTING, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SongMetadata song = songs.get(i);
+                ps.setInt(1, song.getId());
+                ps.setString(2, song.getName());
+                ps.setString(3, song.getArtist());
+                ps.setString(4, song.getAlbum());
+                ps.setString(5, song.getDuration());
+                ps.setString(6, song.getYear());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return songs.size();
+            }
+        });
+
+        boolean[] inserted = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            inserted[i] = counts[i] > 0;
+        }
+        return inserted;
+    }
+
+    @Override
+    public List<Integer> deleteAllByIdReturningIds(int[] ids) {
+        // the driver binds an int[] as an integer array
+        return jdbcTemplate.query(DELETE_RETURNING_IDS, (rs, rowNum) -> rs.getInt(1), (Object) ids);
+    }
+}
@@ -0,0 +1,34 @@
+package com.song.repository;
+
+import com.song.dto.SongMetadataFilter;
+import com.song.dto.SongMetadataResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface SongMetadataSearchRepository {
+
+    /**
+     * Streams up to {@code limit} matching rows in id order to the consumer, straight from the result
+     * set and without loading entities. Must run inside a transaction for the rows to be fetched in chunks.
+     */
+    void streamByFilter(SongMetadataFilter filter, int limit, Consumer<SongMetadataResponse> consumer);
+
+    /**
+     * Full-text match of every term as a word prefix over name, artist and album, best ranked first;
+     * name matches outrank artist matches, which outrank album matches.
+     */
+    List<SongMetadataResponse> searchByWordPrefixes(List<String> terms, int limit);
+
+    /**
+     * Trigram word-similarity match of the text over name, artist and album, most similar first.
+     * Tolerates misspellings that {@link #searchByWordPrefixes} cannot match.
+     */
+    List<SongMetadataResponse> searchBySimilarity(String text, Collection<Integer> excludedIds, int limit);
+
+    /**
+     * Loads the given ids with a single {@code = any(array)} query, in no particular order.
+     */
+    List<SongMetadataResponse> findAllResponsesById(int[] ids);
+}
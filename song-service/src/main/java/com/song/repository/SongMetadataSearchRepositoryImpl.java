@@ -0,0 +1,124 @@
+package com.song.repository;
+
+import com.song.dto.SongMetadataFilter;
+import com.song.dto.SongMetadataResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.function.Consumer;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class SongMetadataSearchRepositoryImpl implements SongMetadataSearchRepository {
+
+    // rows per round trip; the driver only uses a cursor when autocommit is off
+    private static final int FETCH_SIZE = 500;
+
+    private static final String SEARCH_BY_WORD_PREFIXES = """
+        select id, name, artist, album, duration, year
+        from song_metadata, to_tsquery('simple', ?) query
+        where search_vector @@ query
+        order by ts_rank(search_vector, query) desc, id
+        limit ?
+        """;
+
+    private static final String SEARCH_BY_SIMILARITY = """
+        select id, name, artist, album, duration, year
+        from song_metadata
+        where ? <% search_text and not (id = any (?))
+        order by word_similarity(?, search_text) desc, id
+        limit ?
+        """;
+
+    private static final String FIND_BY_IDS = """
+        select id, name, artist, album, duration, year
+        from song_metadata
+        where id = any (?)
+        """;
+
+    private static final RowMapper<SongMetadataResponse> ROW_MAPPER = (rs, rowNum) -> new SongMetadataResponse(
+        rs.getInt("id"),
+        rs.getString("name"),
+        rs.getString("artist"),
+        rs.getString("album"),
+        rs.getString("duration"),
+        rs.getString("year")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void streamByFilter(SongMetadataFilter filter, int limit, Consumer<SongMetadataResponse> consumer) {
+        StringBuilder sql = new StringBuilder(
+            "select id, name, artist, album, duration, year from song_metadata where id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(filter.afterId());
+
+        if (filter.artist() != null) {
+            sql.append(" and artist = ?");
+            args.add(filter.artist());
+        }
+        if (filter.album() != null) {
+            sql.append(" and album = ?");
+            args.add(filter.album());
+        }
+        if (filter.year() != null) {
+            sql.append(" and year = ?");
+            args.add(filter.year());
+        }
+        // the only filter whose index does not yield id order: alone, it costs a sort over every match
+        if (filter.namePrefix() != null) {
+            sql.append(" and name like ? escape '\\'");
+            args.add(escapeLike(filter.namePrefix()) + "%");
+        }
+        sql.append(" order by id limit ?");
+        args.add(limit);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString());
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    @Override
+    public List<SongMetadataResponse> searchByWordPrefixes(List<String> terms, int limit) {
+        // terms are letters and digits only, so they need no tsquery escaping
+        String query = terms.stream()
+            .map(term -> term + ":*")
+            .collect(Collectors.joining(" & "));
+        return jdbcTemplate.query(SEARCH_BY_WORD_PREFIXES, ROW_MAPPER, query, limit);
+    }
+
+    @Override
+    public List<SongMetadataResponse> searchBySimilarity(String text, Collection<Integer> excludedIds, int limit) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SEARCH_BY_SIMILARITY);
+            ps.setString(1, text);
+            ps.setArray(2, connection.createArrayOf("integer", excludedIds.toArray()));
+            ps.setString(3, text);
+            ps.setInt(4, limit);
+            return ps;
+        }, ROW_MAPPER);
+    }
+
+    @Override
+    public List<SongMetadataResponse> findAllResponsesById(int[] ids) {
+        // the driver binds an int[] as an integer array
+        return jdbcTemplate.query(FIND_BY_IDS, ROW_MAPPER, (Object) ids);
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,115 @@
+package com.song.service;
+
+import com.song.dto.SongMetadataRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checks the constraints declared on {@link SongMetadataRequest} without going through Bean Validation:
+ * same rules, same messages, keyed by field name like a violation's property path. Fields are reported
+ * in declaration order and, when a field breaks several constraints, with the message of the first one
+ * declared. A valid request allocates nothing.
+ * <p>
+ * The annotations on the record stay the contract; a change there has to be made here as well.
+ */
+public final class SongMetadataRequestValidator {
+
+    private static final int MAX_TEXT_LENGTH = 100;
+
+    private SongMetadataRequestValidator() {
+        // Prevent instantiation
+    }
+
+    public static Map<String, String> validate(final SongMetadataRequest request) {
+        Map<String, String> errors = null;
+
+        if (request.id() == null) {
+            errors = put(errors, "id", "Resource ID must not be null");
+        }
+
+        String error = textError(request.name(), "Name");
+        if (error != null) {
+            errors = put(errors, "name", error);
+        }
+
+        error = textError(request.artist(), "Artist");
+        if (error != null) {
+            errors = put(errors, "artist", error);
+        }
+
+        error = textError(request.album(), "Album");
+        if (error != null) {
+            errors = put(errors, "album", error);
+        }
+
+        if (request.duration() == null) {
+            errors = put(errors, "duration", "Duration is required");
+        } else if (!isDuration(request.duration())) {
+            errors = put(errors, "duration", "Duration must be in mm:ss format with leading zeros");
+        }
+
+        if (isBlank(request.year())) {
+            errors = put(errors, "year", "Year is required");
+        } else if (!isYear(request.year())) {
+            errors = put(errors, "year", "Year bust be between 1900 and 2099");
+        }
+
+        return errors == null ? Map.of() : errors;
+    }
+
+    // @NotBlank followed by @Size(min = 1, max = 100)
+    private static String textError(final String value, final String field) {
+        if (isBlank(value)) {
+            return field + " is required";
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            return field + " must be between 1 and 100 characters";
+        }
+        return null;
+    }
+
+    // as Hibernate Validator's @NotBlank: null, or nothing left once String.trim() would strip it
+    private static boolean isBlank(final String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ^\d{2}:(?:[0-5]\d)$
+    private static boolean isDuration(final String value) {
+        return value.length() == 5
+            && isDigit(value.charAt(0))
+            && isDigit(value.charAt(1))
+            && value.charAt(2) == ':'
+            && value.charAt(3) >= '0' && value.charAt(3) <= '5'
+            && isDigit(value.charAt(4));
+    }
+
+    // ^(19\d{2}|20\d{2})$
+    private static boolean isYear(final String value) {
+        return value.length() == 4
+            && (value.startsWith("19") || value.startsWith("20"))
+            && isDigit(value.charAt(2))
+            && isDigit(value.charAt(3));
+    }
+
+    // \d without UNICODE_CHARACTER_CLASS is ASCII only
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static Map<String, String> put(Map<String, String> errors, final String field, final String message) {
+        if (errors == null) {
+            errors = new LinkedHashMap<>();
+        }
+        errors.put(field, message);
+        return errors;
+    }
+}
@@ -1,24 +1,36 @@
 package com.song.service;
 
+import com.song.cache.SongMetadataCache;
+import com.song.dto.SongMetadataBatchItemResponse;
+import com.song.dto.SongMetadataBatchItemStatus;
+import com.song.dto.SongMetadataDeleteRequest;
+import com.song.dto.SongMetadataFilter;
+import com.song.dto.SongMetadataLookupItemResponse;
+import com.song.dto.SongMetadataLookupStatus;
 import com.song.dto.SongMetadataRequest;
 import com.song.dto.SongMetadataResponse;
 import com.song.entity.SongMetadata;
 import com.song.exception.MetadataValidationException;
 import com.song.exception.ResourceNotFoundException;
 import com.song.exception.MetadataAlreadyExistException;
+import com.song.exception.ValidationException;
 import com.song.repository.SongMetadataRepository;
 import com.song.util.Utility;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,68 +40,316 @@ import lombok.extern.slf4j.Slf4j;
 public class SongMetadataService {
 
     private static final int MAX_IDS_LENGTH = 200;
+    // enough for a few hundred ids, still well inside the default URL length limits
+    private static final int MAX_LOOKUP_IDS_LENGTH = 4000;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_DELETE_BATCH_SIZE = 10000;
+    private static final String ALREADY_EXISTS_MESSAGE = "Metadata for resource ID=%d already exists";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 10000;
+    private static final int MAX_FILTER_LENGTH = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_SEARCH_TERMS = 8;
+    // shorter input has too few trigrams for similarity to be meaningful
+    private static final int MIN_SIMILARITY_LENGTH = 3;
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
 
     private final SongMetadataRepository songMetadataRepository;
-    private final Validator validator;
+    private final SongMetadataCache songMetadataCache;
 
 
     @Transactional
     public Map<String, Integer> createSong(final SongMetadataRequest request) {
         log.debug("Creating song metadata: {}", request);
 
-        Map<String, String> validationErrors = validateRequest(request);
+        Map<String, String> validationErrors = SongMetadataRequestValidator.validate(request);
         if (!validationErrors.isEmpty()) {
             throw new MetadataValidationException("Validation failed", validationErrors);
         }
 
         if (songMetadataRepository.findById(request.id()).isPresent()) {
-            throw new MetadataAlreadyExistException(
-                String.format("Metadata for resource ID=%d already exists", request.id()));
+            throw new MetadataAlreadyExistException(String.format(ALREADY_EXISTS_MESSAGE, request.id()));
         }
 
         SongMetadata saved = songMetadataRepository.save(toEntity(request));
+        songMetadataCache.invalidate(List.of(saved.getId()));
 
         log.info("Song metadata successfully created: id={}", saved.getId());
         return Map.of("id", saved.getId());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Validates every item, then inserts the valid ones with a single JDBC batch that skips existing ids.
+     * Results are returned in request order; one bad item does not fail the others.
+     */
+    @Transactional
+    public List<SongMetadataBatchItemResponse> createSongs(final List<SongMetadataRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ValidationException("Batch must contain at least one song metadata item.");
+        }
+
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException(
+                String.format("Batch too large: %d items (max %d).", requests.size(), MAX_BATCH_SIZE));
+        }
+
+        final SongMetadataBatchItemResponse[] results = new SongMetadataBatchItemResponse[requests.size()];
+        final List<SongMetadata> toInsert = new ArrayList<>();
+        final List<Integer> insertPositions = new ArrayList<>();
+        final Set<Integer> batchIds = new HashSet<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            final SongMetadataRequest request = requests.get(i);
+            if (request == null) {
+                results[i] = new SongMetadataBatchItemResponse(null, SongMetadataBatchItemStatus.VALIDATION_ERROR,
+                    "Song metadata item must not be null", Map.of());
+                continue;
+            }
+
+            final Map<String, String> validationErrors = SongMetadataRequestValidator.validate(request);
+            if (!validationErrors.isEmpty()) {
+                results[i] = new SongMetadataBatchItemResponse(request.id(),
+                    SongMetadataBatchItemStatus.VALIDATION_ERROR, "Validation error", validationErrors);
+            } else if (!batchIds.add(request.id())) {
+                results[i] = alreadyExists(request.id());
+            } else {
+                toInsert.add(toEntity(request));
+                insertPositions.add(i);
+            }
+        }
+
+        final List<Integer> createdIds = new ArrayList<>();
+        if (!toInsert.isEmpty()) {
+            final boolean[] inserted = songMetadataRepository.insertIgnoringExisting(toInsert);
+            for (int j = 0; j < inserted.length; j++) {
+                final Integer id = toInsert.get(j).getId();
+                if (inserted[j]) {
+                    results[insertPositions.get(j)] = new SongMetadataBatchItemResponse(id,
+                        SongMetadataBatchItemStatus.CREATED, null, Map.of());
+                    createdIds.add(id);
+                } else {
+                    results[insertPositions.get(j)] = alreadyExists(id);
+                }
+            }
+        }
+
+        songMetadataCache.invalidate(createdIds);
+
+        log.info("Batch song metadata create: {} item(s), {} created", requests.size(), createdIds.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Served from {@link SongMetadataCache} when possible. Not transactional, so a cache hit does not
+     * borrow a pooled connection; the repository lookup on a miss runs in its own read-only transaction.
+     */
     public SongMetadataResponse getSongMetadata(final String songId) {
         final int id = Utility.parseAndValidateId(songId);
 
-        SongMetadata songMetadata = songMetadataRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException(
-                String.format("Song metadata with ID=%d not found", id)));
+        return songMetadataCache.get(id, () -> {
+            SongMetadata songMetadata = songMetadataRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                    String.format("Song metadata with ID=%d not found", id)));
+
+            log.debug("Fetched song metadata: {}", songMetadata);
+            return toResponse(songMetadata);
+        });
+    }
+
+    /**
+     * Resolves a CSV of ids in request order, with a {@code NOT_FOUND} item for each unknown id.
+     * Cached ids are served from {@link SongMetadataCache}; the rest are loaded with one query and cached.
+     */
+    public List<SongMetadataLookupItemResponse> getSongMetadataByIds(final String csvIds) {
+        final int[] ids = Utility.validateAndParse(csvIds, MAX_LOOKUP_IDS_LENGTH);
+
+        final long cacheGeneration = songMetadataCache.generation();
+        final Map<Integer, SongMetadataResponse> found = new HashMap<>();
+        final int[] missing = new int[ids.length];
+        int missingCount = 0;
+        for (int id : ids) {
+            final SongMetadataResponse cached = songMetadataCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing[missingCount++] = id;
+            }
+        }
+
+        if (missingCount > 0) {
+            final int[] missingIds = Arrays.copyOf(missing, missingCount);
+            final List<SongMetadataResponse> loaded = songMetadataRepository.findAllResponsesById(missingIds);
+            for (SongMetadataResponse song : loaded) {
+                found.put(song.id(), song);
+            }
+            songMetadataCache.putAll(loaded, cacheGeneration);
+        }
+
+        log.debug("Fetched {} of {} song metadata record(s), {} from cache",
+            found.size(), ids.length, ids.length - missingCount);
+        return Arrays.stream(ids)
+            .mapToObj(id -> found.containsKey(id)
+                ? new SongMetadataLookupItemResponse(id, SongMetadataLookupStatus.FOUND, found.get(id))
+                : new SongMetadataLookupItemResponse(id, SongMetadataLookupStatus.NOT_FOUND, null))
+            .toList();
+    }
 
-        log.debug("Fetched song metadata: {}", songMetadata);
-        return toResponse(songMetadata);
+    /**
+     * Validates list parameters; blank filters are ignored and {@code after} defaults to the start.
+     */
+    public SongMetadataFilter createFilter(final String artist, final String album, final String year,
+                                           final String namePrefix, final String after, final String limit) {
+        final int afterId = after == null || after.isBlank() ? 0 : Utility.parseAndValidateId(after);
+        final int pageSize = limit == null || limit.isBlank() ? DEFAULT_PAGE_SIZE : parseLimit(limit, MAX_PAGE_SIZE);
+
+        return new SongMetadataFilter(
+            normalizeFilter("artist", artist),
+            normalizeFilter("album", album),
+            normalizeFilter("year", year),
+            normalizeFilter("name", namePrefix),
+            afterId,
+            pageSize
+        );
+    }
+
+    /**
+     * Streams one page of matching song metadata in id order to the consumer without holding it in memory.
+     *
+     * @return the id to pass as {@code after} for the next page, or {@code null} on the last page
+     */
+    @Transactional(readOnly = true)
+    public Integer streamSongs(final SongMetadataFilter filter, final Consumer<SongMetadataResponse> consumer) {
+        final int[] count = {0};
+        final int[] lastId = {0};
+
+        // one row past the page tells whether another page follows
+        songMetadataRepository.streamByFilter(filter, filter.limit() + 1, song -> {
+            if (++count[0] <= filter.limit()) {
+                consumer.accept(song);
+                lastId[0] = song.id();
+            }
+        });
+
+        final boolean hasMore = count[0] > filter.limit();
+        log.debug("Listed {} song metadata record(s) for {}", hasMore ? filter.limit() : count[0], filter);
+        return hasMore ? lastId[0] : null;
+    }
+
+    /**
+     * Search-as-you-type over name, artist and album: songs containing every term as a word prefix come
+     * first, by rank; if that leaves the page short, songs whose words are similar to the query (typos)
+     * follow, by similarity.
+     */
+    @Transactional(readOnly = true)
+    public List<SongMetadataResponse> searchSongs(final String query, final String limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Search query must not be blank.");
+        }
+
+        if (query.length() > MAX_FILTER_LENGTH) {
+            throw new ValidationException(
+                String.format("Search query too long: %d chars (max %d).", query.length(), MAX_FILTER_LENGTH));
+        }
+
+        final List<String> terms = Arrays.stream(TERM_SEPARATOR.split(query.toLowerCase(Locale.ROOT)))
+            .filter(term -> !term.isEmpty())
+            .distinct()
+            .limit(MAX_SEARCH_TERMS)
+            .toList();
+        if (terms.isEmpty()) {
+            throw new ValidationException("Search query must contain at least one letter or digit.");
+        }
+
+        final int maxResults = limit == null || limit.isBlank()
+            ? DEFAULT_SEARCH_LIMIT
+            : parseLimit(limit, MAX_SEARCH_LIMIT);
+        final List<SongMetadataResponse> results =
+            new ArrayList<>(songMetadataRepository.searchByWordPrefixes(terms, maxResults));
+
+        final String text = String.join(" ", terms);
+        if (results.size() < maxResults && text.length() >= MIN_SIMILARITY_LENGTH) {
+            final List<Integer> foundIds = results.stream().map(SongMetadataResponse::id).toList();
+            results.addAll(songMetadataRepository.searchBySimilarity(text, foundIds, maxResults - results.size()));
+        }
+
+        log.debug("Search '{}' returned {} result(s)", query, results.size());
+        return results;
     }
 
     @Transactional
     public Map<String, List<Integer>> deleteByIds(final String csvIds) {
-        final List<Integer> idList = Utility.validateAndParse(csvIds, MAX_IDS_LENGTH);
-        final List<Integer> existingIds = songMetadataRepository.findExistingIds(idList);
+        return delete(Utility.validateAndParse(csvIds, MAX_IDS_LENGTH));
+    }
 
-        if (!existingIds.isEmpty()) {
-            songMetadataRepository.deleteAllByIdInBatch(existingIds);
-            log.info("Deleted song metadata records: {}", existingIds);
-        } else {
-            log.warn("No existing metadata found for provided IDs: {}", idList);
+    /**
+     * Deletes ids sent in a request body, for batches too large for a CSV query parameter.
+     */
+    @Transactional
+    public Map<String, List<Integer>> deleteByIds(final SongMetadataDeleteRequest request) {
+        final List<Integer> ids = request == null ? null : request.ids();
+        if (ids == null || ids.isEmpty()) {
+            throw new ValidationException("Delete request must contain at least one ID.");
+        }
+
+        if (ids.size() > MAX_DELETE_BATCH_SIZE) {
+            throw new ValidationException(
+                String.format("Too many IDs: %d (max %d).", ids.size(), MAX_DELETE_BATCH_SIZE));
         }
 
-        return Map.of("ids", existingIds);
+        if (ids.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new ValidationException("Every ID must be a positive integer.");
+        }
+
+        return delete(ids.stream().mapToInt(Integer::intValue).distinct().toArray());
+    }
+
+    private int parseLimit(final String limit, final int max) {
+        final int parsed;
+        try {
+            parsed = Integer.parseInt(limit.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format("Invalid limit '%s'. Must be an integer.", limit));
+        }
+
+        if (parsed < 1 || parsed > max) {
+            throw new ValidationException(
+                String.format("Invalid limit %d. Must be between 1 and %d.", parsed, max));
+        }
+        return parsed;
     }
 
-    private Map<String, String> validateRequest(final SongMetadataRequest request) {
-        final Set<ConstraintViolation<SongMetadataRequest>> violations = validator.validate(request);
+    private String normalizeFilter(final String name, final String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
 
-        final Map<String, String> errorMap = new LinkedHashMap<>();
-        for (ConstraintViolation<SongMetadataRequest> violation : violations) {
-            errorMap.put(violation.getPropertyPath().toString(), violation.getMessage());
+        if (value.length() > MAX_FILTER_LENGTH) {
+            throw new ValidationException(
+                String.format("Filter '%s' too long: %d chars (max %d).", name, value.length(), MAX_FILTER_LENGTH));
         }
-        return errorMap;
+        return value;
     }
 
+    private Map<String, List<Integer>> delete(final int[] ids) {
+        final Set<Integer> deleted = new HashSet<>(songMetadataRepository.deleteAllByIdReturningIds(ids));
+        final List<Integer> deletedIds = Arrays.stream(ids).filter(deleted::contains).boxed().toList();
+
+        if (!deletedIds.isEmpty()) {
+            songMetadataCache.invalidate(deletedIds);
+            log.info("Deleted {} song metadata record(s)", deletedIds.size());
+            log.debug("Deleted song metadata records: {}", deletedIds);
+        } else {
+            log.warn("No existing metadata found for {} provided ID(s)", ids.length);
+        }
+
+        return Map.of("ids", deletedIds);
+    }
+
+    private SongMetadataBatchItemResponse alreadyExists(final Integer id) {
+        return new SongMetadataBatchItemResponse(id, SongMetadataBatchItemStatus.ALREADY_EXISTS,
+            String.format(ALREADY_EXISTS_MESSAGE, id), Map.of());
+    }
 
     private SongMetadata toEntity(final SongMetadataRequest request) {
         return SongMetadata.builder()
@@ -3,65 +3,148 @@ package com.song.util;
 import com.song.exception.ValidationException;
 
 import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Utility class providing validation and parsing methods for IDs and CSV strings.
  */
 public final class Utility {
 
-    private static final Pattern ID_PATTERN = Pattern.compile("^[0-9]+$");
-    private static final Pattern CSV_PATTERN = Pattern.compile("^[0-9]+(?:,[0-9]+)*$");
-
     private Utility() {
         // Prevent instantiation
     }
 
     public static int parseAndValidateId(String id) {
-        if (id == null || !ID_PATTERN.matcher(id).matches()) {
-            throw new ValidationException(
-                String.format("Invalid ID '%s'. Must be a positive integer.", id));
+        if (id == null || id.isEmpty() || !isDigits(id, 0, id.length())) {
+            throw new ValidationException("Invalid ID '" + id + "'. Must be a positive integer.");
         }
 
-        try {
-            int parsed = Integer.parseInt(id);
-            if (parsed <= 0) {
-                throw new ValidationException(
-                    String.format("Invalid ID '%s'. Must be greater than zero.", id));
-            }
-            return parsed;
-        } catch (NumberFormatException e) {
-            throw new ValidationException(
-                String.format("Invalid ID '%s'. Value is too large for 32-bit integer.", id));
+        long parsed = parseDigits(id, 0, id.length());
+        if (parsed > Integer.MAX_VALUE) {
+            throw new ValidationException("Invalid ID '" + id + "'. Value is too large for 32-bit integer.");
+        }
+        if (parsed == 0) {
+            throw new ValidationException("Invalid ID '" + id + "'. Must be greater than zero.");
         }
+        return (int) parsed;
     }
 
-    public static List<Integer> validateAndParse(String csv, int maxLength) {
+    /**
+     * Parses a CSV of positive ids without a regex, splitting or boxing.
+     *
+     * @return the distinct ids, in the order they first appear
+     */
+    public static int[] validateAndParse(String csv, int maxLength) {
         if (csv == null || csv.isBlank()) {
             throw new ValidationException("CSV string cannot be null or blank.");
         }
 
         if (csv.length() > maxLength) {
             throw new ValidationException(
-                String.format("CSV string too long: %d chars (max %d).", csv.length(), maxLength));
+                "CSV string too long: " + csv.length() + " chars (max " + maxLength + ").");
         }
 
-        if (!CSV_PATTERN.matcher(csv).matches()) {
-            throw new ValidationException(
-                "Invalid CSV format. Expected comma-separated positive integers.");
+        int[] ids = new int[countIds(csv)];
+        int count = 0;
+        IdSet seen = new IdSet(ids.length);
+        // a bad id is reported only once the whole string is known to be well-formed
+        int invalidStart = -1;
+        int invalidEnd = -1;
+        long invalidValue = 0;
+
+        int start = 0;
+        for (int i = 0; i <= csv.length(); i++) {
+            if (i < csv.length() && csv.charAt(i) != ',') {
+                if (!isDigit(csv.charAt(i))) {
+                    throw invalidCsvFormat();
+                }
+                continue;
+            }
+
+            if (i == start) {
+                throw invalidCsvFormat();
+            }
+
+            long id = parseDigits(csv, start, i);
+            if (id == 0 || id > Integer.MAX_VALUE) {
+                if (invalidStart < 0) {
+                    invalidStart = start;
+                    invalidEnd = i;
+                    invalidValue = id;
+                }
+            } else if (seen.add((int) id)) {
+                ids[count++] = (int) id;
+            }
+            start = i + 1;
+        }
+
+        if (invalidStart >= 0) {
+            String id = csv.substring(invalidStart, invalidEnd);
+            throw new ValidationException(invalidValue == 0
+                ? "Invalid ID '" + id + "'. Must be greater than zero."
+                : "Invalid ID '" + id + "'. Value is too large for 32-bit integer.");
         }
 
-        List<Integer> ids = Arrays.stream(csv.split(","))
-            .map(String::trim)
-            .map(Utility::parseAndValidateId)
-            .distinct()
-            .toList();
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
 
-        if (ids.isEmpty()) {
-            throw new ValidationException("CSV string must contain at least one valid ID.");
+    private static int countIds(String csv) {
+        int count = 1;
+        for (int i = 0; i < csv.length(); i++) {
+            if (csv.charAt(i) == ',') {
+                count++;
+            }
         }
+        return count;
+    }
 
-        return ids;
+    private static ValidationException invalidCsvFormat() {
+        return new ValidationException("Invalid CSV format. Expected comma-separated positive integers.");
+    }
+
+    private static boolean isDigits(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // saturates just above Integer.MAX_VALUE, so any run of leading zeros or digits is safe
+    private static long parseDigits(String value, int start, int end) {
+        long parsed = 0;
+        for (int i = start; i < end && parsed <= Integer.MAX_VALUE; i++) {
+            parsed = parsed * 10 + (value.charAt(i) - '0');
+        }
+        return parsed;
+    }
+
+    /**
+     * Open-addressing set of positive ints, at most half full; 0 marks a free slot.
+     */
+    private static final class IdSet {
+        private final int[] slots;
+
+        IdSet(int capacity) {
+            slots = new int[Integer.highestOneBit(capacity) << 2];
+        }
+
+        boolean add(int id) {
+            int mask = slots.length - 1;
+            int hash = id * 0x9E3779B9;
+            for (int i = (hash ^ hash >>> 16) & mask; ; i = (i + 1) & mask) {
+                if (slots[i] == id) {
+                    return false;
+                }
+                if (slots[i] == 0) {
+                    slots[i] = id;
+                    return true;
+                }
+            }
+        }
     }
 }
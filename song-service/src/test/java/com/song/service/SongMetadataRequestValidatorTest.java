@@ -0,0 +1,142 @@
+package com.song.service;
+
+import com.song.dto.SongMetadataRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@link SongMetadataRequestValidator} and Bean Validation over the same requests and expects the
+ * same error map. Where a field breaks several constraints Bean Validation reports all of them in no
+ * particular order, so the expected message is the one of the {@code @NotNull}/{@code @NotBlank}
+ * constraint, which is declared first on every field.
+ */
+class SongMetadataRequestValidatorTest {
+    private static final String LONG_TEXT = "x".repeat(101);
+    private static final String BLANK_LONG_TEXT = " ".repeat(101);
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void acceptsValidRequest() {
+        SongMetadataRequest request = request(42, "Song", "Artist", "Album", "03:35", "2024");
+        assertThat(SongMetadataRequestValidator.validate(request)).isEmpty();
+        assertSameErrors(request);
+    }
+
+    @Test
+    void reportsEveryFieldOfAnEmptyRequest() {
+        SongMetadataRequest request = request(null, null, null, null, null, null);
+        assertThat(SongMetadataRequestValidator.validate(request)).containsExactly(
+            Map.entry("id", "Resource ID must not be null"),
+            Map.entry("name", "Name is required"),
+            Map.entry("artist", "Artist is required"),
+            Map.entry("album", "Album is required"),
+            Map.entry("duration", "Duration is required"),
+            Map.entry("year", "Year is required"));
+        assertSameErrors(request);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", " ", "\t\r\n", "\u0000", "\u001f ", "\u00a0", "\u2003", "\u3000", " a ", "a",
+        "x", "\u0101"})
+    void treatsBlankTextAsStringTrimDoes(String text) {
+        assertSameErrors(request(1, text, text, text, "03:35", "2024"));
+    }
+
+    @Test
+    void reportsBlankBeforeSizeForText() {
+        SongMetadataRequest request = request(1, BLANK_LONG_TEXT, LONG_TEXT, "x".repeat(100), "03:35", "2024");
+        assertThat(SongMetadataRequestValidator.validate(request)).containsExactly(
+            Map.entry("name", "Name is required"),
+            Map.entry("artist", "Artist must be between 1 and 100 characters"));
+        assertSameErrors(request);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "00:00", "99:59", "03:60", "3:35", "003:35", "03:5", "03-35", " 03:35",
+        "03:35 ", "03:35\n", "\u0660\u0663:\u0663\u0665", "03:3\u0665", "\uff10\uff13:\uff13\uff15", "03:\uff135", "ab:cd"})
+    void matchesDurationPattern(String duration) {
+        assertSameErrors(request(1, "Song", "Artist", "Album", duration, "2024"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "\t", "1899", "1900", "1999", "2000", "2099", "2100", "199", "20245", "19x9",
+        " 2024", "2024 ", "2024\n", "\u0662\u0660\u0662\u0664", "20\u0662\u0664", "\uff12\uff10\uff12\uff14", "+2024"})
+    void matchesYearPattern(String year) {
+        assertSameErrors(request(1, "Song", "Artist", "Album", "03:35", year));
+    }
+
+    @Test
+    void matchesBeanValidationOnRandomRequests() {
+        Random random = new Random(20251018);
+        String[] texts = {null, "", " ", "\t", "\u00a0", "Song", LONG_TEXT, BLANK_LONG_TEXT, "x".repeat(100)};
+        String[] durations = {null, "", " ", "03:35", "59:59", "03:60", "3:35", "\u0660\u0663:\u0663\u0665", "03:35\n"};
+        String[] years = {null, "", " ", "1900", "2099", "1899", "2100", "\u0662\u0660\u0662\u0664", "2024 "};
+        for (int i = 0; i < 2_000; i++) {
+            assertSameErrors(request(
+                random.nextBoolean() ? random.nextInt() : null,
+                texts[random.nextInt(texts.length)],
+                texts[random.nextInt(texts.length)],
+                texts[random.nextInt(texts.length)],
+                durations[random.nextInt(durations.length)],
+                years[random.nextInt(years.length)]));
+        }
+    }
+
+    private static void assertSameErrors(SongMetadataRequest request) {
+        assertThat(SongMetadataRequestValidator.validate(request))
+            .as("%s", request)
+            .isEqualTo(beanValidation(request));
+    }
+
+    private static Map<String, String> beanValidation(SongMetadataRequest request) {
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<SongMetadataRequest> violation : validator.validate(request)) {
+            String field = violation.getPropertyPath().toString();
+            if (isPresenceCheck(violation) || !errors.containsKey(field)) {
+                errors.put(field, violation.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private static boolean isPresenceCheck(ConstraintViolation<?> violation) {
+        Class<? extends Annotation> type = violation.getConstraintDescriptor().getAnnotation().annotationType();
+        return type == NotNull.class || type == NotBlank.class;
+    }
+
+    private static SongMetadataRequest request(Integer id, String name, String artist, String album,
+                                               String duration, String year) {
+        return new SongMetadataRequest(id, name, artist, album, duration, year);
+    }
+}
@@ -0,0 +1,64 @@
+package com.song.util;
+
+import com.song.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The parsers are the same single-pass ones as in resource-service, whose {@code UtilityTest} pins them to
+ * the regex implementation they replaced. This covers what differs here: song-service's messages, which
+ * end with a period, and the limits of its delete and lookup endpoints.
+ */
+class UtilityTest {
+    private static final int MAX_IDS_LENGTH = 200;
+    private static final int MAX_LOOKUP_IDS_LENGTH = 4000;
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {" ", "\t\n"})
+    void rejectsBlankCsv(String csv) {
+        assertCsvError(csv, MAX_IDS_LENGTH, "CSV string cannot be null or blank.");
+    }
+
+    @Test
+    void rejectsCsvPastEachLimitBeforeCheckingItsFormat() {
+        assertCsvError("x".repeat(MAX_IDS_LENGTH + 1), MAX_IDS_LENGTH, "CSV string too long: 201 chars (max 200).");
+        assertCsvError("x".repeat(MAX_LOOKUP_IDS_LENGTH + 1), MAX_LOOKUP_IDS_LENGTH,
+            "CSV string too long: 4001 chars (max 4000).");
+    }
+
+    @Test
+    void parsesLookupListUpToItsLimit() {
+        // 1..888, then 9999 padded with leading zeros up to the limit
+        String prefix = IntStream.rangeClosed(1, 888).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        String csv = prefix + "," + "0".repeat(MAX_LOOKUP_IDS_LENGTH - prefix.length() - 5) + "9999";
+        assertThat(csv).hasSize(MAX_LOOKUP_IDS_LENGTH);
+
+        int[] ids = Utility.validateAndParse(csv, MAX_LOOKUP_IDS_LENGTH);
+
+        assertThat(ids).hasSize(889).startsWith(1, 2, 3).endsWith(888, 9999);
+    }
+
+    @Test
+    void reportsIdErrorsWithThisServicesMessages() {
+        assertCsvError("1,a", MAX_IDS_LENGTH, "Invalid CSV format. Expected comma-separated positive integers.");
+        assertCsvError("1,0", MAX_IDS_LENGTH, "Invalid ID '0'. Must be greater than zero.");
+        assertThatThrownBy(() -> Utility.parseAndValidateId("2147483648"))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage("Invalid ID '2147483648'. Value is too large for 32-bit integer.");
+    }
+
+    private static void assertCsvError(String csv, int maxLength, String message) {
+        assertThatThrownBy(() -> Utility.validateAndParse(csv, maxLength))
+            .isInstanceOf(ValidationException.class)
+            .hasMessage(message);
+    }
+}